@@ -0,0 +1,38 @@
+package com.ctg.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BCryptBenchmark {
+
+    /** 10 is the BCryptPasswordEncoder default used by SecurityConfig. */
+    @Param({"4", "8", "10", "12"})
+    public int strength;
+
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setup() {
+        encoder = new BCryptPasswordEncoder(strength);
+        hash = encoder.encode("EmployeeTestPassword");
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode("EmployeeTestPassword");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches("EmployeeTestPassword", hash);
+    }
+}
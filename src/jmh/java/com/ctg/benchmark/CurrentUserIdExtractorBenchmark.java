@@ -0,0 +1,44 @@
+package com.ctg.benchmark;
+
+import com.ctg.security.CurrentUserIdExtractor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CurrentUserIdExtractorBenchmark {
+
+    /** Which claim the user id is resolved from. */
+    @Param({"uid", "numericSub", "email", "emailSub"})
+    public String variant;
+
+    private final CurrentUserIdExtractor extractor = new CurrentUserIdExtractor();
+    private Jwt jwt;
+
+    @Setup
+    public void setup() {
+        Jwt.Builder builder = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(900));
+        jwt = switch (variant) {
+            case "uid" -> builder.subject("employee@mail.com").claim("uid", 42L).build();
+            case "numericSub" -> builder.subject("7").build();
+            case "email" -> builder.subject("auth0|abc").claim("email", "employee@mail.com").build();
+            case "emailSub" -> builder.subject("employee@mail.com").build();
+            default -> throw new IllegalArgumentException(variant);
+        };
+    }
+
+    @Benchmark
+    public CurrentUserIdExtractor.UserId resolve() {
+        return extractor.resolve(jwt);
+    }
+}
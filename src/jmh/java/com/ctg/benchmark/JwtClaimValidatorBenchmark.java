@@ -0,0 +1,50 @@
+package com.ctg.benchmark;
+
+import com.ctg.config.SecurityConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtClaimValidatorBenchmark {
+
+    /** Valid tokens take the success path; invalid ones allocate an OAuth2Error. */
+    @Param({"true", "false"})
+    public boolean valid;
+
+    private final OAuth2TokenValidator<Jwt> audience = SecurityConfig.audienceValidator("users-api");
+    private final OAuth2TokenValidator<Jwt> accessType = SecurityConfig.accessTypeValidator();
+    private Jwt jwt;
+
+    @Setup
+    public void setup() {
+        jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("42")
+                .audience(valid ? List.of("users-api") : List.of("other-api"))
+                .claim("typ", valid ? "access" : "refresh")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(900))
+                .build();
+    }
+
+    @Benchmark
+    public OAuth2TokenValidatorResult audience() {
+        return audience.validate(jwt);
+    }
+
+    @Benchmark
+    public OAuth2TokenValidatorResult accessType() {
+        return accessType.validate(jwt);
+    }
+}
@@ -0,0 +1,46 @@
+package com.ctg.benchmark;
+
+import com.ctg.dto.PagedResponse;
+import com.ctg.dto.UserResponse;
+import com.ctg.model.Role;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PagedResponseSerializationBenchmark {
+
+    @Param({"10", "100"})
+    public int pageSize;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private PagedResponse<UserResponse> page;
+
+    @Setup
+    public void setup() {
+        List<UserResponse> content = LongStream.rangeClosed(1, pageSize)
+                .mapToObj(id -> UserResponse.builder()
+                        .id(id)
+                        .fullName("Employee " + id)
+                        .email("employee" + id + "@mail.com")
+                        .role(Role.EMPLOYEE)
+                        .build())
+                .toList();
+        page = new PagedResponse<>(content, 0, pageSize, 10_000, 10_000 / pageSize);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,39 @@
+package com.ctg.benchmark;
+
+import com.ctg.common.TestUserFactory;
+import com.ctg.dto.UserResponse;
+import com.ctg.mapper.UserMapper;
+import com.ctg.mapper.UserMapperImpl;
+import com.ctg.model.Role;
+import com.ctg.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserMapperBenchmark {
+
+    private final UserMapper mapper = new UserMapperImpl();
+    private User user;
+
+    @Setup
+    public void setup() {
+        user = User.builder()
+                .id(42L)
+                .fullName("Employee Benchmark")
+                .email("employee@mail.com")
+                .password(TestUserFactory.ENCODED_PASSWORD)
+                .role(Role.EMPLOYEE)
+                .build();
+    }
+
+    @Benchmark
+    public UserResponse toDto() {
+        return mapper.toDto(user);
+    }
+}
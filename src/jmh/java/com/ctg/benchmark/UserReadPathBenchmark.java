@@ -0,0 +1,97 @@
+package com.ctg.benchmark;
+
+import com.ctg.common.TestUserFactory;
+import com.ctg.dto.UserResponse;
+import com.ctg.mapper.UserMapper;
+import com.ctg.mapper.UserMapperImpl;
+import com.ctg.model.User;
+import com.ctg.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity + MapStruct versus DTO projection for one page of users, read from a Postgres
+ * container migrated by Flyway. Needs Docker.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserReadPathBenchmark {
+
+    @Param({"100"})
+    public int pageSize;
+
+    // Both paths read a Page, so both pay for the same count query
+    private static final Specification<User> ALL_USERS = (root, query, cb) -> null;
+
+    private final UserMapper mapper = new UserMapperImpl();
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private TransactionTemplate readOnlyTx;
+    private PageRequest page;
+
+    @Setup
+    public void setup() {
+        postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15"));
+        postgres.start();
+        context = new SpringApplicationBuilder(ReadPathConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "spring.jpa.hibernate.ddl-auto=none",
+                        "spring.main.banner-mode=off")
+                .run();
+
+        TestUserFactory.insertUsers(context.getBean(JdbcTemplate.class), "user", pageSize);
+        userRepository = context.getBean(UserRepository.class);
+        readOnlyTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+        page = PageRequest.of(0, pageSize, Sort.by("id"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public List<UserResponse> entityAndMapper() {
+        return readOnlyTx.execute(status -> userRepository.findAll(page).map(mapper::toDto).getContent());
+    }
+
+    @Benchmark
+    public List<UserResponse> projection() {
+        return readOnlyTx.execute(status -> userRepository.findResponses(ALL_USERS, page).getContent());
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = User.class)
+    @EnableJpaRepositories(basePackageClasses = UserRepository.class)
+    static class ReadPathConfig {
+    }
+}
@@ -0,0 +1,142 @@
+package com.ctg.cache;
+
+import com.ctg.dto.CacheStatsResponse;
+import com.ctg.dto.LoginUserResponse;
+import com.ctg.model.User;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of {@link LoginUserResponse} keyed by normalized email.
+ * Entries are evicted by user id whenever the user row changes, so a bumped token
+ * version is never served from the cache once the changing transaction commits.
+ * <p>
+ * Misses are loaded on the calling thread outside of the cache's internal locks, so a
+ * database lookup never pins a virtual thread; concurrent callers for the same email
+ * wait on the pending future instead of issuing their own query.
+ * <p>
+ * The id of a loading entry is only known once its row has been read. An eviction that
+ * runs during a load therefore cannot find that entry, so a load that overlapped any
+ * eviction is handed to its waiting callers but not kept in the cache.
+ */
+@Component
+@Slf4j
+public class LoginUserCache implements MeterBinder {
+
+    private final AsyncCache<String, LoginUserResponse> cache;
+    private final Map<Long, String> emailsById = new ConcurrentHashMap<>();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public LoginUserCache(
+            @Value("${user.login-cache.max-size:10000}") long maxSize,
+            @Value("${user.login-cache.ttl:30s}") Duration ttl
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .evictionListener(this::onEviction)
+                .recordStats()
+                .buildAsync();
+    }
+
+    public LoginUserResponse get(String email, Function<String, LoginUserResponse> loader) {
+        String key = normalize(email);
+        CompletableFuture<LoginUserResponse> pending = new CompletableFuture<>();
+        CompletableFuture<LoginUserResponse> entry = cache.get(key, (k, executor) -> pending);
+        if (entry == pending) {
+            long generation = evictions.get();
+            try {
+                LoginUserResponse loaded = loader.apply(email);
+                emailsById.put(loaded.id(), key);
+                pending.complete(loaded);
+                if (evictions.get() != generation) {
+                    cache.asMap().remove(key, pending);
+                }
+            } catch (RuntimeException ex) {
+                pending.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+        return join(entry);
+    }
+
+    /**
+     * Evicts the entry of the given user. Inside a transaction the eviction is repeated
+     * after commit, so a concurrent lookup cannot re-populate the cache with the old row.
+     */
+    public void evict(Long id) {
+        evictNow(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(id);
+                }
+            });
+        }
+    }
+
+    public CacheStatsResponse stats() {
+        CacheStats stats = cache.synchronous().stats();
+        return new CacheStatsResponse(
+                cache.synchronous().estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount()
+        );
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "loginUsers");
+    }
+
+    private void evictNow(Long id) {
+        evictions.incrementAndGet();
+        String email = emailsById.remove(id);
+        if (email != null) {
+            cache.synchronous().invalidate(email);
+            log.debug("Evicted login cache entry for user {}", id);
+        }
+    }
+
+    private void onEviction(String email, LoginUserResponse value, RemovalCause cause) {
+        if (value != null) {
+            emailsById.remove(value.id(), email);
+        }
+    }
+
+    private static LoginUserResponse join(CompletableFuture<LoginUserResponse> entry) {
+        try {
+            return entry.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static String normalize(String email) {
+        return User.normalizeEmail(email);
+    }
+}
@@ -0,0 +1,138 @@
+package com.ctg.cache;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory token version of every user. Only users whose version has moved past 0 are
+ * stored, so memory follows the number of revocations rather than the largest user id,
+ * and every id can be tracked. Increments made by this instance are applied directly; all
+ * other changes are picked up by polling rows updated since the last poll, minus a lookback
+ * that covers transactions committing after a later one was already seen. Versions only
+ * ever move forward.
+ * <p>
+ * Fails closed: until the first full load has succeeded no token is current, and
+ * {@link TokenVersionHealthIndicator} keeps the instance out of readiness. The load runs
+ * synchronously at startup and is retried by every scheduled refresh.
+ */
+@Component
+@Slf4j
+public class TokenVersionCache {
+
+    /** Version stored for a deleted user, so none of its tokens is current. */
+    private static final int REVOKED = Integer.MAX_VALUE;
+
+    private static final String CHANGED_SINCE =
+            "SELECT id, token_version, updated_at FROM users WHERE updated_at >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration lookback;
+    private final Map<Long, Integer> versions = new ConcurrentHashMap<>();
+    private Instant watermark = Instant.EPOCH;
+    private volatile boolean loaded;
+
+    public TokenVersionCache(
+            JdbcTemplate jdbcTemplate,
+            @Value("${auth.token-version.lookback:1m}") Duration lookback
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.lookback = lookback;
+    }
+
+    /**
+     * A token is current unless its version is older than the known one. Users not seen yet
+     * are at version 0. Before the first load nothing is current.
+     */
+    public boolean isCurrent(long userId, int tokenVersion) {
+        return loaded && tokenVersion >= versionOf(userId);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public int trackedUsers() {
+        return versions.size();
+    }
+
+    public int versionOf(long userId) {
+        return versions.getOrDefault(userId, 0);
+    }
+
+    /**
+     * Inside a transaction the new version is applied after commit, so a rollback leaves the
+     * known version untouched.
+     */
+    public void update(long userId, int tokenVersion) {
+        afterCommit(() -> write(userId, tokenVersion));
+    }
+
+    public void revoke(long userId) {
+        afterCommit(() -> write(userId, REVOKED));
+    }
+
+    @PostConstruct
+    void load() {
+        refresh();
+        if (!loaded) {
+            log.warn("Token versions could not be loaded at startup, rejecting versioned tokens until they are");
+        }
+    }
+
+    // The first run loads every user; later runs only read rows changed since the watermark
+    @Scheduled(fixedDelayString = "${auth.token-version.refresh-interval:5s}")
+    public void refresh() {
+        Instant since = watermark.minus(lookback);
+        Instant[] newest = {watermark};
+        int[] rows = {0};
+        try {
+            jdbcTemplate.query(CHANGED_SINCE, rs -> {
+                write(rs.getLong(1), rs.getInt(2));
+                Instant updatedAt = rs.getObject(3, OffsetDateTime.class).toInstant();
+                if (updatedAt.isAfter(newest[0])) {
+                    newest[0] = updatedAt;
+                }
+                rows[0]++;
+            }, since.atOffset(ZoneOffset.UTC));
+        } catch (DataAccessException ex) {
+            log.warn("Token version refresh failed, keeping versions as of {}: {}", watermark, ex.getMessage());
+            return;
+        }
+        watermark = newest[0];
+        loaded = true;
+        log.debug("Token versions refreshed from {} rows, watermark {}", rows[0], watermark);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void write(long userId, int tokenVersion) {
+        if (tokenVersion > 0) {
+            versions.merge(userId, tokenVersion, Math::max);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.ctg.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports DOWN until token versions have been loaded, so the readiness probe keeps traffic
+ * away from an instance that cannot tell revoked tokens apart.
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenVersionHealthIndicator implements HealthIndicator {
+
+    private final TokenVersionCache tokenVersions;
+
+    @Override
+    public Health health() {
+        Health.Builder health = tokenVersions.isLoaded() ? Health.up() : Health.down();
+        return health.withDetail("trackedUsers", tokenVersions.trackedUsers()).build();
+    }
+}
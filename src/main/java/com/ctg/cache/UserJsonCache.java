@@ -0,0 +1,98 @@
+package com.ctg.cache;
+
+import com.ctg.dto.UserVersion;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Serialized UTF-8 JSON of single users, keyed by {@link UserVersion} so a changed row is
+ * never served from an older entry. Bounded by total bytes rather than entry count.
+ * <p>
+ * Only the newest version of a user is kept; entries are also evicted by id on update,
+ * delete and token version changes. Misses are serialized on the calling thread outside of
+ * the cache's internal locks; two concurrent misses for the same version both serialize.
+ */
+@Component
+@Slf4j
+public class UserJsonCache implements MeterBinder {
+
+    private final Cache<UserVersion, byte[]> cache;
+    private final Map<Long, UserVersion> versionsById = new ConcurrentHashMap<>();
+
+    public UserJsonCache(
+            @Value("${user.json-cache.max-size:16MB}") DataSize maxSize,
+            @Value("${user.json-cache.ttl:10m}") Duration ttl
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((UserVersion version, byte[] json) -> json.length)
+                .expireAfterWrite(ttl)
+                .evictionListener(this::onEviction)
+                .recordStats()
+                .build();
+    }
+
+    public byte[] get(UserVersion version, Supplier<byte[]> serializer) {
+        byte[] json = cache.getIfPresent(version);
+        if (json != null) {
+            return json;
+        }
+        json = serializer.get();
+        cache.put(version, json);
+        UserVersion previous = versionsById.put(version.id(), version);
+        if (previous != null && !previous.equals(version)) {
+            cache.invalidate(previous);
+        }
+        return json;
+    }
+
+    /**
+     * Evicts the entry of the given user. Inside a transaction the eviction is repeated
+     * after commit, so a concurrent request cannot keep the old bytes around.
+     */
+    public void evict(Long id) {
+        evictNow(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(id);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "userJson");
+    }
+
+    private void evictNow(Long id) {
+        UserVersion version = versionsById.remove(id);
+        if (version != null) {
+            cache.invalidate(version);
+            log.debug("Evicted JSON cache entry for user {}", id);
+        }
+    }
+
+    private void onEviction(UserVersion version, byte[] json, RemovalCause cause) {
+        if (version != null) {
+            versionsById.remove(version.id(), version);
+        }
+    }
+}
@@ -1,5 +1,15 @@
 package com.ctg.config;
 
+import com.ctg.cache.TokenVersionCache;
+import com.ctg.security.CachingJwtDecoder;
+import com.ctg.security.JwksKeySource;
+import com.ctg.security.TimedJwtDecoder;
+import com.ctg.security.TokenVersionJwtDecoder;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
@@ -45,38 +55,53 @@ public class SecurityConfig {
 
     @Bean
     JwtDecoder jwtDecoder(
-            @Value("${auth.jwks-uri}") String jwksUri,
-            @Value("${auth.issuer}") String issuer
+            JwksKeySource jwksKeySource,
+            TokenVersionCache tokenVersionCache,
+            @Value("${auth.issuer}") String issuer,
+            @Value("${auth.jwt-cache.max-size:10000}") long cacheSize,
+            MeterRegistry meterRegistry
     ) {
-        NimbusJwtDecoder decoder = NimbusJwtDecoder.withJwkSetUri(jwksUri).build();
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwksKeySource));
+        // Claims are checked by the Spring validators below
+        processor.setJWTClaimsSetVerifier((claims, context) -> { });
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
         JwtTimestampValidator ts = new JwtTimestampValidator(Duration.ofSeconds(30));
         OAuth2TokenValidator<Jwt> withIssuer = JwtValidators.createDefaultWithIssuer(issuer);
 
-        OAuth2TokenValidator<Jwt> withAudience = token -> {
+        decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+                ts, withIssuer, audienceValidator(expectedAudience), accessTypeValidator()));
+
+        CachingJwtDecoder cached = new CachingJwtDecoder(decoder, cacheSize);
+        cached.bindTo(meterRegistry);
+        return new TimedJwtDecoder(new TokenVersionJwtDecoder(cached, tokenVersionCache), meterRegistry);
+    }
+
+    public static OAuth2TokenValidator<Jwt> audienceValidator(String expectedAudience) {
+        return token -> {
             List<String> aud = token.getAudience();
             boolean ok = aud != null && aud.contains(expectedAudience);
             return ok ? OAuth2TokenValidatorResult.success()
                     : OAuth2TokenValidatorResult.failure(
                     new OAuth2Error("invalid_token", "Invalid audience", null));
         };
+    }
 
-        OAuth2TokenValidator<Jwt> withTypAccess = token -> {
+    public static OAuth2TokenValidator<Jwt> accessTypeValidator() {
+        return token -> {
             String typ = token.getClaimAsString("typ");
             boolean ok = "access".equals(typ);
             return ok ? OAuth2TokenValidatorResult.success()
                     : OAuth2TokenValidatorResult.failure(
                     new OAuth2Error("invalid_token", "Token typ must be 'access'", null));
         };
-
-        decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(ts, withIssuer, withAudience, withTypAccess));
-        return decoder;
     }
 
     @Bean
     SecurityFilterChain filterChain(HttpSecurity http, JwtDecoder jwtDecoder) throws Exception {
         http.csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/v1/users/current").authenticated()
                         .anyRequest().authenticated()
                 ).addFilterBefore(this::internalSecretFilter, AnonymousAuthenticationFilter.class)
@@ -84,11 +109,16 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // Metrics scrapes authenticate like internal services, so they are never public
+    private static boolean requiresInternalSecret(String uri) {
+        return uri.startsWith("/internal/") || uri.equals("/actuator/prometheus");
+    }
+
     private void internalSecretFilter(ServletRequest req, ServletResponse res, FilterChain chain) throws IOException, ServletException {
         HttpServletRequest request = (HttpServletRequest) req;
         HttpServletResponse response = (HttpServletResponse) res;
 
-        if (request.getRequestURI().startsWith("/internal/")) {
+        if (requiresInternalSecret(request.getRequestURI())) {
             String header = request.getHeader("X-Internal-Secret");
             if (header == null || !header.equals(sharedSecret)) {
                 response.setStatus(HttpStatus.FORBIDDEN.value());
@@ -5,4 +5,7 @@ public class PaginationConstants {
     public static final String DEFAULT_PAGE_SIZE = "15";
     public static final String DEFAULT_SORT_BY = "id";
     public static final String DEFAULT_SORT_DIR = "asc";
+    public static final String DEFAULT_TOTALS = "exact";
+    public static final String TOTALS_ESTIMATE = "estimate";
+    public static final String TOTALS_NONE = "none";
 }
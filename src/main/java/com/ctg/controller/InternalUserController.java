@@ -1,25 +1,50 @@
 package com.ctg.controller;
 
+import com.ctg.cache.LoginUserCache;
+import com.ctg.dto.BatchResponse;
+import com.ctg.dto.CacheStatsResponse;
 import com.ctg.dto.LoginUserResponse;
+import com.ctg.dto.PasswordHashingStatsResponse;
+import com.ctg.dto.TokenVersionResponse;
+import com.ctg.dto.UserResponse;
+import com.ctg.security.PasswordHasher;
 import com.ctg.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/internal")
 @RequiredArgsConstructor
 public class InternalUserController {
     private final UserService service;
+    private final LoginUserCache loginUserCache;
+    private final PasswordHasher passwordHasher;
 
     @GetMapping("/users/by-email")
     public ResponseEntity<LoginUserResponse> byEmail(@RequestParam String email) {
-        return ResponseEntity.ok(service.findByEmailForLogin(email.toLowerCase()));
+        return ResponseEntity.ok(service.findByEmailForLogin(email));
+    }
+
+    @GetMapping("/users/by-emails")
+    public BatchResponse<String, UserResponse> byEmails(@RequestParam List<String> emails) {
+        return service.getByEmails(emails);
     }
 
     @PostMapping("/users/{id}/token-version/increment")
-    public ResponseEntity<Void> increment(@PathVariable Long id) {
-        service.incrementTokenVersion(id);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<TokenVersionResponse> increment(@PathVariable Long id) {
+        return ResponseEntity.ok(new TokenVersionResponse(service.incrementTokenVersion(id)));
+    }
+
+    @GetMapping("/users/login-cache/stats")
+    public CacheStatsResponse loginCacheStats() {
+        return loginUserCache.stats();
+    }
+
+    @GetMapping("/password-hashing/stats")
+    public PasswordHashingStatsResponse passwordHashingStats() {
+        return passwordHasher.stats();
     }
 }
@@ -1,24 +1,69 @@
 package com.ctg.controller;
 
+import com.ctg.cache.UserJsonCache;
 import com.ctg.constants.PaginationConstants;
+import com.ctg.dto.BatchResponse;
+import com.ctg.dto.CollectionVersion;
+import com.ctg.dto.CursorPagedResponse;
+import com.ctg.dto.ErrorField;
+import com.ctg.dto.ImportSummary;
 import com.ctg.dto.PagedResponse;
+import com.ctg.dto.SliceResponse;
+import com.ctg.dto.UserFilter;
+import com.ctg.dto.UserPatchRequest;
 import com.ctg.dto.UserRequest;
 import com.ctg.dto.UserResponse;
+import com.ctg.dto.UserVersion;
+import com.ctg.dto.VersionedUserResponse;
+import com.ctg.exceptions.PreconditionFailedException;
+import com.ctg.exceptions.ValidationException;
+import com.ctg.model.Role;
+import com.ctg.service.ImportFormat;
+import com.ctg.service.UserImportService;
 import com.ctg.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/v1/users")
 public class UserController {
 
+    public static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
+    private static final byte[] CSV_EXPORT_HEADER = "id,fullName,email,role\n".getBytes(StandardCharsets.UTF_8);
+
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final ObjectMapper objectMapper;
+    private final UserJsonCache userJsonCache;
 
+    /**
+     * Unfiltered pages with exact totals carry a collection-level ETag. Its count/counter probe
+     * also supplies the total, so an unchanged table answers 304 and a changed one is still
+     * counted only once. Estimated and filtered pages skip the probe, as it would add a full
+     * count to them. With any filter set the total is always counted exactly, as table
+     * statistics cannot estimate it.
+     */
     @GetMapping
     public PagedResponse<UserResponse> getUsers(
             @RequestParam(value = "page",
@@ -28,14 +73,93 @@ public class UserController {
             @RequestParam(value = "sort",
                     defaultValue = PaginationConstants.DEFAULT_SORT_BY, required = false) String sort,
             @RequestParam(value = "sortDir",
-                    defaultValue = PaginationConstants.DEFAULT_SORT_DIR, required = false) String sortDir
+                    defaultValue = PaginationConstants.DEFAULT_SORT_DIR, required = false) String sortDir,
+            @RequestParam(value = "totals",
+                    defaultValue = PaginationConstants.DEFAULT_TOTALS, required = false) String totals,
+            @RequestParam(value = "role", required = false) Role role,
+            @RequestParam(value = "q", required = false) String q,
+            @RequestParam(value = "createdFrom", required = false) Instant createdFrom,
+            @RequestParam(value = "createdTo", required = false) Instant createdTo,
+            WebRequest request
+    ) {
+        boolean estimate = switch (totals) {
+            case PaginationConstants.DEFAULT_TOTALS -> false;
+            case PaginationConstants.TOTALS_ESTIMATE -> true;
+            default -> throw new ValidationException(List.of(
+                    new ErrorField("totals", "Totals must be one of none, estimate, exact")));
+        };
+        UserFilter filter = new UserFilter(role, q, createdFrom, createdTo);
+        if (!filter.isEmpty()) {
+            return userService.search(filter, page, size, sort, sortDir);
+        }
+        if (estimate) {
+            return userService.getByPageWithEstimatedTotal(page, size, sort, sortDir);
+        }
+        CollectionVersion version = userService.getCollectionVersion();
+        if (request.checkNotModified(eTag(version))) {
+            return null;
+        }
+        return userService.getByPageWithKnownTotal(page, size, sort, sortDir, version.count());
+    }
+
+    @GetMapping(params = {"totals=" + PaginationConstants.TOTALS_NONE, "!after"})
+    public SliceResponse<UserResponse> getUsersSlice(
+            @RequestParam(value = "page",
+                    defaultValue = PaginationConstants.DEFAULT_PAGE_NUMBER, required = false) int page,
+            @RequestParam(value = "size",
+                    defaultValue = PaginationConstants.DEFAULT_PAGE_SIZE, required = false) int size,
+            @RequestParam(value = "sort",
+                    defaultValue = PaginationConstants.DEFAULT_SORT_BY, required = false) String sort,
+            @RequestParam(value = "sortDir",
+                    defaultValue = PaginationConstants.DEFAULT_SORT_DIR, required = false) String sortDir,
+            @RequestParam(value = "role", required = false) Role role,
+            @RequestParam(value = "q", required = false) String q,
+            @RequestParam(value = "createdFrom", required = false) Instant createdFrom,
+            @RequestParam(value = "createdTo", required = false) Instant createdTo
     ) {
-       return userService.getByPage(page, size, sort, sortDir);
+        UserFilter filter = new UserFilter(role, q, createdFrom, createdTo);
+        if (!filter.isEmpty()) {
+            return userService.searchSlice(filter, page, size, sort, sortDir);
+        }
+        return userService.getSliceByPage(page, size, sort, sortDir);
     }
 
+    /**
+     * The cursor does not carry the filters; pass the same ones with every page.
+     */
+    @GetMapping(params = "after")
+    public CursorPagedResponse<UserResponse> getUsersAfter(
+            @RequestParam(value = "after") String after,
+            @RequestParam(value = "size",
+                    defaultValue = PaginationConstants.DEFAULT_PAGE_SIZE, required = false) int size,
+            @RequestParam(value = "sort",
+                    defaultValue = PaginationConstants.DEFAULT_SORT_BY, required = false) String sort,
+            @RequestParam(value = "sortDir",
+                    defaultValue = PaginationConstants.DEFAULT_SORT_DIR, required = false) String sortDir,
+            @RequestParam(value = "role", required = false) Role role,
+            @RequestParam(value = "q", required = false) String q,
+            @RequestParam(value = "createdFrom", required = false) Instant createdFrom,
+            @RequestParam(value = "createdTo", required = false) Instant createdTo
+    ) {
+        return userService.getByCursor(new UserFilter(role, q, createdFrom, createdTo), after, size, sort, sortDir);
+    }
+
+    @GetMapping("/batch")
+    public BatchResponse<Long, UserResponse> getBatch(@RequestParam("ids") List<Long> ids) {
+        return userService.getByIds(ids);
+    }
+
+    /**
+     * Answers from pre-serialized JSON of the probed version, so hot users skip mapping and
+     * serialization entirely.
+     */
     @GetMapping("/{id}")
-    public UserResponse get(@PathVariable("id") Long id) {
-        return userService.get(id);
+    public ResponseEntity<byte[]> get(@PathVariable("id") Long id, WebRequest request) {
+        UserVersion version = userService.getVersion(id);
+        if (request.checkNotModified(eTag(version))) {
+            return null;
+        }
+        return json(userJsonCache.get(version, () -> toJson(userService.get(id))));
     }
 
     @PostMapping
@@ -44,9 +168,74 @@ public class UserController {
         return userService.create(newUser);
     }
 
+    /**
+     * Bulk import from NDJSON or CSV. CSV follows RFC 4180, so quoted fields may contain
+     * commas, doubled quotes and line breaks. The response is NDJSON with one result per input
+     * row, written as each batch completes, followed by a final {"summary": ...} line.
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, ImportFormat.TEXT_CSV_VALUE})
+    public void importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body,
+            HttpServletResponse response
+    ) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+        ImportSummary summary = userImportService.importUsers(body, ImportFormat.from(contentType),
+                results -> writeLines(out, results));
+        writeLines(out, List.of(Map.of("summary", summary)));
+    }
+
+    /**
+     * Streams every user as NDJSON (default) or CSV, row by row from a database cursor.
+     */
+    @GetMapping("/export")
+    public void exportUsers(
+            @RequestParam(value = "format", defaultValue = "ndjson", required = false) String format,
+            HttpServletResponse response
+    ) throws IOException {
+        boolean csv = switch (format) {
+            case "ndjson" -> false;
+            case "csv" -> true;
+            default -> throw new ValidationException(List.of(
+                    new ErrorField("format", "Format must be one of ndjson, csv")));
+        };
+        response.setContentType(csv ? ImportFormat.TEXT_CSV_VALUE : MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users." + format + "\"");
+
+        OutputStream out = response.getOutputStream();
+        if (csv) {
+            out.write(CSV_EXPORT_HEADER);
+        }
+        userService.exportAll(user -> writeExportRow(out, csv, user));
+        out.flush();
+    }
+
+    /**
+     * With an {@code If-Match} entity tag from a previous GET the update only applies to that
+     * version; otherwise it fails with 412 instead of overwriting a concurrent edit.
+     */
     @PutMapping("/{id}")
-    public UserResponse update(@Valid @RequestBody UserRequest updatedUser, @PathVariable("id") Long id) {
-        return userService.update(id, updatedUser);
+    public ResponseEntity<UserResponse> update(
+            @Valid @RequestBody UserRequest updatedUser,
+            @PathVariable("id") Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        return versioned(userService.update(id, updatedUser, expectedVersion(id, ifMatch)));
+    }
+
+    /**
+     * JSON Merge Patch (RFC 7396): only the fields present in the body are changed, and
+     * If-Match is honoured as for PUT.
+     */
+    @PatchMapping(value = "/{id}", consumes = MERGE_PATCH_JSON_VALUE)
+    public ResponseEntity<UserResponse> patch(
+            @Valid @RequestBody UserPatchRequest patch,
+            @PathVariable("id") Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        return versioned(userService.patch(id, patch, expectedVersion(id, ifMatch)));
     }
 
     @DeleteMapping("/{id}")
@@ -56,7 +245,91 @@ public class UserController {
     }
 
     @GetMapping("/current")
-    public UserResponse current(@AuthenticationPrincipal Jwt jwt) {
-        return userService.getCurrent(jwt);
+    public ResponseEntity<byte[]> current(@AuthenticationPrincipal Jwt jwt, WebRequest request) {
+        UserVersion version = userService.getCurrentVersion(jwt);
+        if (request.checkNotModified(eTag(version))) {
+            return null;
+        }
+        return json(userJsonCache.get(version, () -> toJson(userService.getCurrent(jwt))));
+    }
+
+    private static ResponseEntity<byte[]> json(byte[] body) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    private byte[] toJson(UserResponse user) {
+        try {
+            return objectMapper.writeValueAsBytes(user);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // The new entity tag lets the client chain the next If-Match without another GET
+    private static ResponseEntity<UserResponse> versioned(VersionedUserResponse updated) {
+        UserResponse user = updated.user();
+        return ResponseEntity.ok().eTag(eTag(new UserVersion(user.getId(), updated.version()))).body(user);
+    }
+
+    private static String eTag(UserVersion version) {
+        return "\"" + version.id() + "-" + version.version() + "\"";
+    }
+
+    /**
+     * Version named by a single strong entity tag as produced by {@link #eTag(UserVersion)};
+     * null for a missing header or "*". Weak or foreign tags can never match.
+     */
+    private static Long expectedVersion(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String prefix = "\"" + id + "-";
+        String tag = ifMatch.trim();
+        if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+            try {
+                return Long.parseLong(tag.substring(prefix.length(), tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // falls through to the precondition failure
+            }
+        }
+        throw new PreconditionFailedException("If-Match does not match the current version of user " + id);
+    }
+
+    private static String eTag(CollectionVersion version) {
+        return "\"" + version.count() + "-" + version.changes() + "\"";
+    }
+
+    private void writeExportRow(OutputStream out, boolean csv, UserResponse user) {
+        try {
+            if (csv) {
+                String row = user.getId() + "," + csvField(user.getFullName()) + "," + csvField(user.getEmail())
+                        + "," + user.getRole() + "\n";
+                out.write(row.getBytes(StandardCharsets.UTF_8));
+            } else {
+                out.write(objectMapper.writeValueAsBytes(user));
+                out.write('\n');
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private void writeLines(OutputStream out, List<?> lines) {
+        try {
+            for (Object line : lines) {
+                out.write(objectMapper.writeValueAsBytes(line));
+                out.write('\n');
+            }
+            out.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
     }
 }
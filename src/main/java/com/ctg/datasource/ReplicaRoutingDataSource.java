@@ -0,0 +1,178 @@
+package com.ctg.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary. Reads
+ * fall back to the primary while the replica lags more than {@code maxLag} or cannot be
+ * reached, for {@code readYourWrites} after the same principal committed a write, and inside
+ * {@link #onPrimary}. A transaction counts as a write once it prepares anything but a
+ * {@code SELECT}, so read-write transactions that only read leave the principal on the replica. Must be wrapped in a {@link LazyConnectionDataSourceProxy}, so the
+ * connection is only picked once the transaction's read-only flag is known.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    // Zero when fully replayed, so an idle primary does not look like lag
+    private static final String LAG_SQL = """
+            SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END""";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final Duration maxLag;
+    private final Cache<String, Boolean> recentWriters;
+    private volatile boolean replicaUsable = true;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration readYourWrites, Duration maxLag) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLag = maxLag;
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(readYourWrites)
+                .build();
+    }
+
+    /**
+     * Runs the action with read-only transactions on the primary, for reads that must see
+     * the latest committed state.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        boolean outermost = FORCE_PRIMARY.get() == null;
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (outermost) {
+                FORCE_PRIMARY.remove();
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return trackWrites(primary.getConnection());
+        }
+        if (!useReplica()) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException ex) {
+            replicaUsable = false;
+            log.warn("Replica unavailable, reading from primary until the next lag check: {}", ex.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Credentials are configured per pool");
+    }
+
+    @Scheduled(fixedDelayString = "${user.replica.check-interval:2s}")
+    public void checkReplica() {
+        boolean usable;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(LAG_SQL)) {
+            rs.next();
+            double lagSeconds = rs.getDouble(1);
+            usable = lagSeconds * 1000 <= maxLag.toMillis();
+            if (!usable && replicaUsable) {
+                log.warn("Replica lags {}s behind the primary, reading from primary", lagSeconds);
+            }
+        } catch (SQLException ex) {
+            usable = false;
+            if (replicaUsable) {
+                log.warn("Replica lag check failed, reading from primary: {}", ex.getMessage());
+            }
+        }
+        if (usable && !replicaUsable) {
+            log.info("Replica caught up, routing read-only transactions to it again");
+        }
+        replicaUsable = usable;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    private boolean useReplica() {
+        String principal = currentPrincipal();
+        return replicaUsable
+                && FORCE_PRIMARY.get() == null
+                && (principal == null || recentWriters.getIfPresent(principal) == null);
+    }
+
+    /**
+     * Marks the current principal as a recent writer once the transaction commits, if the
+     * connection prepared a statement that is not a {@code SELECT}.
+     */
+    private Connection trackWrites(Connection connection) {
+        String principal = currentPrincipal();
+        if (principal == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return connection;
+        }
+        AtomicBoolean wrote = new AtomicBoolean();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (wrote.get()) {
+                    recentWriters.put(principal, Boolean.TRUE);
+                }
+            }
+        });
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (isWrite(method, args)) {
+                        wrote.set(true);
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                });
+    }
+
+    // The SQL of a plain Statement is not known here, so it counts as a write
+    private static boolean isWrite(Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "createStatement" -> true;
+            case "prepareStatement", "prepareCall" -> args[0] instanceof String sql
+                    && !sql.stripLeading().regionMatches(true, 0, "select", 0, 6);
+            default -> false;
+        };
+    }
+
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+}
@@ -0,0 +1,15 @@
+package com.ctg.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BatchResponse<K, T> {
+    private List<T> content;
+    private List<K> missing;
+}
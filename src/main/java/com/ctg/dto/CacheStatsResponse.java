@@ -0,0 +1,5 @@
+package com.ctg.dto;
+
+public record CacheStatsResponse(
+        long size, long hitCount, long missCount, double hitRate, long evictionCount
+) {}
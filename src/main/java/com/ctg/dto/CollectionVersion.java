@@ -0,0 +1,7 @@
+package com.ctg.dto;
+
+/**
+ * Changes whenever a user is created, deleted or has a listed field updated: {@code changes}
+ * is a counter bumped inside every such transaction, so it moves exactly when the change commits.
+ */
+public record CollectionVersion(long count, long changes) {}
@@ -0,0 +1,24 @@
+package com.ctg.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ImportRowResult(int row, String email, Status status, Long id, List<ErrorField> errors) {
+
+    public enum Status { CREATED, DUPLICATE, INVALID }
+
+    public static ImportRowResult created(int row, String email, Long id) {
+        return new ImportRowResult(row, email, Status.CREATED, id, null);
+    }
+
+    public static ImportRowResult duplicate(int row, String email) {
+        return new ImportRowResult(row, email, Status.DUPLICATE, null,
+                List.of(new ErrorField("email", "Email already exists")));
+    }
+
+    public static ImportRowResult invalid(int row, String email, List<ErrorField> errors) {
+        return new ImportRowResult(row, email, Status.INVALID, null, errors);
+    }
+}
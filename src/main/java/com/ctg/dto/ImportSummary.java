@@ -0,0 +1,3 @@
+package com.ctg.dto;
+
+public record ImportSummary(long total, long created, long duplicates, long invalid) {}
@@ -0,0 +1,6 @@
+package com.ctg.dto;
+
+public record PasswordHashingStatsResponse(
+        int poolSize, int activeThreads, int queueDepth, int queueCapacity,
+        long completed, long rejected, double averageHashMillis, double maxHashMillis
+) {}
@@ -0,0 +1,3 @@
+package com.ctg.dto;
+
+public record TokenVersionResponse(int tokenVersion) {}
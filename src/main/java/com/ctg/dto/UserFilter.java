@@ -0,0 +1,16 @@
+package com.ctg.dto;
+
+import com.ctg.model.Role;
+
+import java.time.Instant;
+
+/**
+ * Optional list filters; null fields do not restrict the result. {@code q} matches a substring
+ * of the full name or email, the created-at range is [createdFrom, createdTo).
+ */
+public record UserFilter(Role role, String q, Instant createdFrom, Instant createdTo) {
+
+    public boolean isEmpty() {
+        return role == null && (q == null || q.isBlank()) && createdFrom == null && createdTo == null;
+    }
+}
@@ -0,0 +1,37 @@
+package com.ctg.dto;
+
+import com.ctg.model.Role;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.annotation.Nulls;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+/**
+ * JSON Merge Patch of a user: absent fields are left unchanged. None of the fields can be
+ * removed, so an explicit null is rejected while reading the body.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class UserPatchRequest {
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    @Size(min = 2, max = 100, message = "Full name must be 2-100 characters")
+    private String fullName;
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    @Email(message = "Email should be valid")
+    @Size(min = 1, message = "Email should be valid")
+    private String email;
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    @Size(min = 8, max = 100, message = "Password must be 8-100 characters")
+    @ToString.Exclude
+    private String password;
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    private Role role;
+}
@@ -0,0 +1,6 @@
+package com.ctg.dto;
+
+/**
+ * Identity and optimistic-lock version of one user, read without loading the row's columns.
+ */
+public record UserVersion(Long id, long version) {}
@@ -0,0 +1,14 @@
+package com.ctg.dto;
+
+import com.ctg.model.Role;
+
+/**
+ * A user as an update left it, with the version that update produced, so the response can
+ * carry the entity tag for the next conditional request.
+ */
+public record VersionedUserResponse(UserResponse user, long version) {
+
+    public VersionedUserResponse(Long id, String fullName, String email, Role role, long version) {
+        this(new UserResponse(id, fullName, email, role), version);
+    }
+}
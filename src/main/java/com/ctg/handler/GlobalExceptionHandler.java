@@ -1,26 +1,40 @@
 package com.ctg.handler;
 
+import com.ctg.exceptions.PreconditionFailedException;
 import com.ctg.exceptions.ResourceNotFoundException;
+import com.ctg.exceptions.ServiceOverloadedException;
 import com.ctg.exceptions.ValidationException;
 import com.ctg.dto.ErrorField;
 import com.ctg.dto.ErrorResponse;
 import com.fasterxml.jackson.databind.exc.InvalidFormatException;
 import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
     public ErrorResponse handleValidationExceptions(MethodArgumentNotValidException ex) {
+        countError(ex, HttpStatus.UNPROCESSABLE_ENTITY);
         List<ErrorField> errorFields = new ArrayList<>();
 
         // Field errors
@@ -39,23 +53,75 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(ResourceNotFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleResourceNotFound(ResourceNotFoundException ex) {
+        countError(ex, HttpStatus.NOT_FOUND);
         return new ErrorResponse("Not found", ex.getMessage(), HttpStatus.NOT_FOUND, null);
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ErrorResponse handlePreconditionFailed(PreconditionFailedException ex) {
+        countError(ex, HttpStatus.PRECONDITION_FAILED);
+        return new ErrorResponse("Precondition failed", ex.getMessage(), HttpStatus.PRECONDITION_FAILED, null);
+    }
+
     @ExceptionHandler(ValidationException.class)
     @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
     public ErrorResponse handleCustomValidation(ValidationException ex) {
+        countError(ex, HttpStatus.UNPROCESSABLE_ENTITY);
         return new ErrorResponse(ex.getMessage(), null, HttpStatus.UNPROCESSABLE_ENTITY, ex.getErrorFields());
     }
 
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleServiceOverloaded(ServiceOverloadedException ex) {
+        countError(ex, HttpStatus.SERVICE_UNAVAILABLE);
+        return serviceUnavailable(ex.getMessage(), ex.getRetryAfter());
+    }
+
+    // Hikari reports a connection-timeout as SQLTransientConnectionException; anything else
+    // (database down, authentication failure) is not a pool problem
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<ErrorResponse> handleDatabaseUnavailable(CannotCreateTransactionException ex) {
+        countError(ex, HttpStatus.SERVICE_UNAVAILABLE);
+        String message = hasCause(ex, SQLTransientConnectionException.class)
+                ? "Database connection pool exhausted, retry later"
+                : "Database unavailable, retry later";
+        return serviceUnavailable(message, Duration.ofSeconds(1));
+    }
+
     @ExceptionHandler(MismatchedInputException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleJsonParseError(MismatchedInputException ex) {
+        countError(ex, HttpStatus.BAD_REQUEST);
         return new ErrorResponse(ex.getMessage(), null, HttpStatus.BAD_REQUEST, null);
     }
 
     @ExceptionHandler(InvalidFormatException.class)
     public ErrorResponse handleInvalidFormat(InvalidFormatException ex) {
+        countError(ex, HttpStatus.BAD_REQUEST);
         return new ErrorResponse(ex.getMessage(), null, HttpStatus.BAD_REQUEST, null);
     }
+
+    private void countError(Exception ex, HttpStatus status) {
+        Counter.builder("api.errors")
+                .description("Requests answered by an exception handler")
+                .tag("exception", ex.getClass().getSimpleName())
+                .tag("status", String.valueOf(status.value()))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static boolean hasCause(Throwable ex, Class<? extends Throwable> type) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ResponseEntity<ErrorResponse> serviceUnavailable(String message, Duration retryAfter) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())))
+                .body(new ErrorResponse("Service overloaded", message, HttpStatus.SERVICE_UNAVAILABLE, null));
+    }
 }
@@ -1,5 +1,6 @@
 package com.ctg.mapper;
 
+import com.ctg.dto.UserPatchRequest;
 import com.ctg.dto.UserRequest;
 import com.ctg.dto.UserResponse;
 import com.ctg.model.User;
@@ -15,8 +16,20 @@ public interface UserMapper {
     UserResponse toDto(User user);
 
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
     User toEntity(UserRequest userDto);
 
+    // Passwords are hashed by the service, never copied from a request
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "password", ignore = true)
     void updateEntityFromDto(UserRequest updatedUser, @MappingTarget User existingUser);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "password", ignore = true)
+    @Mapping(target = "tokenVersion", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    void patchEntity(UserPatchRequest patch, @MappingTarget User existingUser);
 }
@@ -6,7 +6,9 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.Instant;
+import java.util.Locale;
 
+// Updates go through UserUpdateRepository's bulk UPDATE, so entity update callbacks never run
 @Entity
 @Table(name = "users")
 @NoArgsConstructor
@@ -29,7 +31,8 @@ public class User {
     @Column(nullable = false)
     private String password;
 
-    @Column(name="token_version", nullable=false)
+    // Only ever changed by UserRepository.incrementTokenVersion, so entity updates never overwrite it.
+    @Column(name="token_version", nullable=false, updatable=false)
     private int tokenVersion;
 
     @Column(nullable = false)
@@ -43,4 +46,18 @@ public class User {
     @UpdateTimestamp
     @Column(name="updated_at", nullable=false)
     private Instant updatedAt;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    // Emails are unique case-insensitively, so they are always stored in one canonical form
+    @PrePersist
+    void normalize() {
+        email = normalizeEmail(email);
+    }
+
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
 }
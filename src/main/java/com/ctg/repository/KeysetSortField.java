@@ -0,0 +1,39 @@
+package com.ctg.repository;
+
+import com.ctg.dto.UserResponse;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Sort keys supported by keyset pagination. Each one is paired with {@code id} as a
+ * tie-breaker and is backed by an index on {@code (column, id)}.
+ */
+public enum KeysetSortField {
+    ID("id", UserResponse::getId),
+    FULL_NAME("fullName", UserResponse::getFullName),
+    EMAIL("email", UserResponse::getEmail);
+
+    private final String property;
+    private final Function<UserResponse, Object> extractor;
+
+    KeysetSortField(String property, Function<UserResponse, Object> extractor) {
+        this.property = property;
+        this.extractor = extractor;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public String keyOf(UserResponse user) {
+        return String.valueOf(extractor.apply(user));
+    }
+
+    public static Optional<KeysetSortField> fromProperty(String property) {
+        return Arrays.stream(values())
+                .filter(field -> field.property.equals(property))
+                .findFirst();
+    }
+}
@@ -0,0 +1,20 @@
+package com.ctg.repository;
+
+import com.ctg.dto.UserResponse;
+import com.ctg.model.User;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface UserKeysetRepository {
+
+    /**
+     * Returns up to {@code limit} users, projected into {@link UserResponse} and ordered by
+     * {@code sortField} and {@code id}, starting right after the row identified by
+     * {@code lastKey}/{@code lastId}. Passing a null {@code lastId} starts from the beginning.
+     * Only users matching {@code spec} are returned.
+     */
+    List<UserResponse> findPageAfter(Specification<User> spec, KeysetSortField sortField, Sort.Direction direction,
+                                     String lastKey, Long lastId, int limit);
+}
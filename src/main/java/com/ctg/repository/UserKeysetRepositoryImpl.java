@@ -0,0 +1,79 @@
+package com.ctg.repository;
+
+import com.ctg.dto.UserResponse;
+import com.ctg.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class UserKeysetRepositoryImpl implements UserKeysetRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserResponse> findPageAfter(Specification<User> spec, KeysetSortField sortField, Sort.Direction direction,
+                                    String lastKey, Long lastId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UserResponse> query = cb.createQuery(UserResponse.class);
+        Root<User> root = query.from(User.class);
+        Path<Long> id = root.get("id");
+        query.select(cb.construct(UserResponse.class,
+                id, root.get("fullName"), root.get("email"), root.get("role")));
+
+        List<Predicate> predicates = new ArrayList<>(2);
+        Predicate filter = spec.toPredicate(root, query, cb);
+        if (filter != null) {
+            predicates.add(filter);
+        }
+        if (lastId != null) {
+            predicates.add(seekPredicate(cb, root, sortField, direction, lastKey, lastId));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+
+        if (sortField == KeysetSortField.ID) {
+            query.orderBy(direction.isAscending() ? cb.asc(id) : cb.desc(id));
+        } else {
+            Path<String> key = root.get(sortField.getProperty());
+            query.orderBy(
+                    direction.isAscending() ? cb.asc(key) : cb.desc(key),
+                    direction.isAscending() ? cb.asc(id) : cb.desc(id)
+            );
+        }
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Builds {@code key >= :key AND (key > :key OR id > :id)} (mirrored for descending order).
+     * The leading inclusive bound lets Postgres start an index range scan on {@code (key, id)}
+     * instead of evaluating the OR for every row.
+     */
+    private Predicate seekPredicate(CriteriaBuilder cb, Root<User> root, KeysetSortField sortField,
+                                    Sort.Direction direction, String lastKey, Long lastId) {
+        Path<Long> id = root.get("id");
+        boolean asc = direction.isAscending();
+
+        if (sortField == KeysetSortField.ID) {
+            return asc ? cb.greaterThan(id, lastId) : cb.lessThan(id, lastId);
+        }
+
+        Path<String> key = root.get(sortField.getProperty());
+        return asc
+                ? cb.and(cb.greaterThanOrEqualTo(key, lastKey),
+                        cb.or(cb.greaterThan(key, lastKey), cb.greaterThan(id, lastId)))
+                : cb.and(cb.lessThanOrEqualTo(key, lastKey),
+                        cb.or(cb.lessThan(key, lastKey), cb.lessThan(id, lastId)));
+    }
+}
@@ -1,13 +1,104 @@
 package com.ctg.repository;
 
+import com.ctg.dto.LoginUserResponse;
+import com.ctg.dto.UserResponse;
+import com.ctg.dto.UserVersion;
+import com.ctg.dto.VersionedUserResponse;
 import com.ctg.model.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
-    boolean existsByEmail(String email);
+public interface UserRepository extends JpaRepository<User, Long>, UserKeysetRepository, UserSearchRepository,
+        UserUpdateRepository {
+
+    String EMAIL_UNIQUE_CONSTRAINT = "users_email_lower_key";
+
+    /**
+     * Selects only the {@link UserResponse} columns straight into the DTO, so read paths
+     * neither fetch the password hash nor register managed entities in the persistence context.
+     */
+    String SELECT_USER_RESPONSE = "select new com.ctg.dto.UserResponse(u.id, u.fullName, u.email, u.role) from User u";
+
+    String EXPORT_FETCH_SIZE = "1000";
+
+    /**
+     * Reads only the columns needed for login; all of them live in the unique covering index
+     * on {@code lower(email)}, so Postgres can answer with an index-only scan. Email lookups
+     * expect a {@link com.ctg.model.User#normalizeEmail normalized} argument.
+     */
+    @Query("select new com.ctg.dto.LoginUserResponse(u.id, u.email, u.password, u.role, u.tokenVersion)"
+            + " from User u where lower(u.email) = :email")
+    Optional<LoginUserResponse> findLoginByEmail(String email);
+
+    @Query(SELECT_USER_RESPONSE + " where u.id = :id")
+    Optional<UserResponse> findResponseById(Long id);
+
+    @Query(SELECT_USER_RESPONSE + " where lower(u.email) = :email")
+    Optional<UserResponse> findResponseByEmail(String email);
+
+    @Query("select new com.ctg.dto.VersionedUserResponse(u.id, u.fullName, u.email, u.role, u.version)"
+            + " from User u where u.id = :id")
+    Optional<VersionedUserResponse> findVersionedResponseById(Long id);
+
+    /**
+     * Cheap probes for conditional GETs: only the columns that make up the ETag are read.
+     */
+    @Query("select new com.ctg.dto.UserVersion(u.id, u.version) from User u where u.id = :id")
+    Optional<UserVersion> findVersionById(Long id);
+
+    @Query("select new com.ctg.dto.UserVersion(u.id, u.version) from User u where lower(u.email) = :email")
+    Optional<UserVersion> findVersionByEmail(String email);
+
+    /**
+     * Value of the change counter bumped by a trigger on every statement that changes listed
+     * user data (see V8 migration).
+     */
+    @Query(value = "SELECT changes FROM users_changes", nativeQuery = true)
+    long findChangeCount();
+
+    @Query(SELECT_USER_RESPONSE + " where u.id in :ids")
+    List<UserResponse> findResponsesByIdIn(Collection<Long> ids);
+
+    @Query(SELECT_USER_RESPONSE + " where lower(u.email) in :emails")
+    List<UserResponse> findResponsesByEmailIn(Collection<String> emails);
+
+    @Query(SELECT_USER_RESPONSE)
+    Slice<UserResponse> findResponseSlice(Pageable pageable);
+
+    /**
+     * Streams every user in id order. Inside a transaction the Postgres driver reads through a
+     * server-side cursor in chunks of the fetch size; the stream must be closed by the caller.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(SELECT_USER_RESPONSE + " order by u.id")
+    Stream<UserResponse> streamAllResponses();
+
+    /**
+     * Increments the token version in a single statement and returns the new value, so
+     * concurrent increments cannot be lost. Empty when no user has the given id.
+     */
+    @Query(value = "UPDATE users SET token_version = token_version + 1, updated_at = NOW()"
+            + " WHERE id = :id RETURNING token_version", nativeQuery = true)
+    Optional<Integer> incrementTokenVersion(Long id);
+
+    /**
+     * Row count estimate from planner statistics; -1 (or 0 before Postgres 14) when the
+     * table has never been vacuumed or analyzed.
+     */
+    @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = to_regclass('users')",
+            nativeQuery = true)
+    long estimateCount();
 }
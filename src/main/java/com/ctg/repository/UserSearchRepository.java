@@ -0,0 +1,23 @@
+package com.ctg.repository;
+
+import com.ctg.dto.UserResponse;
+import com.ctg.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface UserSearchRepository {
+
+    /**
+     * Users matching {@code spec}, projected into {@link UserResponse} like the unfiltered
+     * list queries. The count query is skipped when the page shows it is not needed.
+     */
+    Page<UserResponse> findResponses(Specification<User> spec, Pageable pageable);
+
+    /**
+     * Like {@link #findResponses} but without a count query; one extra row is read to
+     * determine whether a next slice exists.
+     */
+    Slice<UserResponse> findResponseSlice(Specification<User> spec, Pageable pageable);
+}
@@ -0,0 +1,77 @@
+package com.ctg.repository;
+
+import com.ctg.dto.UserFilter;
+import com.ctg.model.Role;
+import com.ctg.model.User;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Predicates for filtered user lists. Each one is written to match an index: {@code role}
+ * uses {@code (role, id)}, the created-at range {@code (created_at)}, and substring search
+ * the trigram GIN indexes on {@code lower(full_name)} and {@code lower(email)}.
+ */
+public final class UserSpecifications {
+
+    /**
+     * Trigram indexes cannot narrow down patterns shorter than one trigram.
+     */
+    public static final int MIN_SUBSTRING_LENGTH = 3;
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private UserSpecifications() {
+    }
+
+    public static Specification<User> matching(UserFilter filter) {
+        List<Specification<User>> specs = new ArrayList<>();
+        if (filter.role() != null) {
+            specs.add(hasRole(filter.role()));
+        }
+        if (filter.q() != null && !filter.q().isBlank()) {
+            specs.add(nameOrEmailContains(filter.q().strip()));
+        }
+        if (filter.createdFrom() != null) {
+            specs.add(createdAtOrAfter(filter.createdFrom()));
+        }
+        if (filter.createdTo() != null) {
+            specs.add(createdBefore(filter.createdTo()));
+        }
+        return Specification.allOf(specs);
+    }
+
+    public static Specification<User> hasRole(Role role) {
+        return (root, query, cb) -> cb.equal(root.get("role"), role);
+    }
+
+    public static Specification<User> nameOrEmailContains(String text) {
+        String pattern = "%" + escapeLike(text.toLowerCase(Locale.ROOT)) + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.get("fullName")), pattern, LIKE_ESCAPE),
+                cb.like(cb.lower(root.get("email")), pattern, LIKE_ESCAPE)
+        );
+    }
+
+    public static Specification<User> createdAtOrAfter(Instant from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), from);
+    }
+
+    public static Specification<User> createdBefore(Instant to) {
+        return (root, query, cb) -> cb.lessThan(root.get("createdAt"), to);
+    }
+
+    private static String escapeLike(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
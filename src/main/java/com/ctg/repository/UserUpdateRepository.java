@@ -0,0 +1,14 @@
+package com.ctg.repository;
+
+import com.ctg.model.User;
+
+public interface UserUpdateRepository {
+
+    /**
+     * Writes the non-null fields of {@code changes} to the user in a single
+     * {@code UPDATE ... WHERE id = :id AND version = :expectedVersion} statement and bumps the
+     * version. A null {@code expectedVersion} updates any version. Returns the number of rows
+     * updated: 0 when the user does not exist or is no longer at the expected version.
+     */
+    int updateIfVersion(Long id, Long expectedVersion, User changes);
+}
@@ -0,0 +1,50 @@
+package com.ctg.repository;
+
+import com.ctg.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+
+import java.time.Instant;
+
+class UserUpdateRepositoryImpl implements UserUpdateRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Bulk updates bypass the entity callbacks, so the email is normalized and the version
+     * and update timestamp are maintained here instead.
+     */
+    @Override
+    public int updateIfVersion(Long id, Long expectedVersion, User changes) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<User> update = cb.createCriteriaUpdate(User.class);
+        Root<User> root = update.from(User.class);
+        Path<Long> version = root.get("version");
+
+        if (changes.getFullName() != null) {
+            update.set(root.<String>get("fullName"), changes.getFullName());
+        }
+        if (changes.getEmail() != null) {
+            update.set(root.<String>get("email"), User.normalizeEmail(changes.getEmail()));
+        }
+        if (changes.getPassword() != null) {
+            update.set(root.<String>get("password"), changes.getPassword());
+        }
+        if (changes.getRole() != null) {
+            update.set(root.get("role"), changes.getRole());
+        }
+        update.set(root.<Instant>get("updatedAt"), Instant.now());
+        update.set(version, cb.sum(version, 1L));
+
+        update.where(expectedVersion == null
+                ? cb.equal(root.get("id"), id)
+                : cb.and(cb.equal(root.get("id"), id), cb.equal(version, expectedVersion)));
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
@@ -0,0 +1,79 @@
+package com.ctg.security;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSetCacheRefreshEvaluator;
+import com.nimbusds.jose.jwk.source.JWKSetSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Writes every key set fetched from the issuer to a local file (public keys only) and
+ * serves that file when the issuer cannot be reached.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class FileBackedJWKSetSource implements JWKSetSource<SecurityContext> {
+
+    private final JWKSetSource<SecurityContext> delegate;
+    private final Path file;
+    private volatile String lastWritten;
+
+    @Override
+    public JWKSet getJWKSet(JWKSetCacheRefreshEvaluator refreshEvaluator, long currentTime, SecurityContext context)
+            throws KeySourceException {
+        JWKSet jwkSet;
+        try {
+            jwkSet = delegate.getJWKSet(refreshEvaluator, currentTime, context);
+        } catch (KeySourceException ex) {
+            return readFallback(ex);
+        }
+        persist(jwkSet);
+        return jwkSet;
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    private JWKSet readFallback(KeySourceException cause) throws KeySourceException {
+        if (!Files.isReadable(file)) {
+            throw cause;
+        }
+        try {
+            JWKSet jwkSet = JWKSet.load(file.toFile());
+            log.warn("Issuer key set unavailable ({}), using {}", cause.getMessage(), file);
+            return jwkSet;
+        } catch (IOException | ParseException ex) {
+            cause.addSuppressed(ex);
+            throw cause;
+        }
+    }
+
+    private void persist(JWKSet jwkSet) {
+        String json = jwkSet.toString(true);
+        if (json.equals(lastWritten)) {
+            return;
+        }
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+            Files.writeString(tmp, json);
+            Files.move(tmp, file, REPLACE_EXISTING, ATOMIC_MOVE);
+            lastWritten = json;
+        } catch (IOException ex) {
+            log.warn("Could not write key set to {}: {}", file, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.ctg.security;
+
+import com.nimbusds.jose.KeySourceException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports DOWN until signing keys are available, so the readiness probe keeps traffic away
+ * from an instance that would reject every token.
+ */
+@Component
+@RequiredArgsConstructor
+public class JwksHealthIndicator implements HealthIndicator {
+
+    private final JwksKeySource keySource;
+
+    @Override
+    public Health health() {
+        try {
+            return Health.up().withDetail("keys", keySource.load()).build();
+        } catch (KeySourceException ex) {
+            return Health.down(ex).build();
+        }
+    }
+}
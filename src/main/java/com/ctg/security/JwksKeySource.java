@@ -0,0 +1,92 @@
+package com.ctg.security;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.source.JWKSetSource;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.jwk.source.URLBasedJWKSetSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.DefaultResourceRetriever;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Signing keys for access tokens, fetched from {@code auth.jwks-uri} before the application
+ * reports ready and refreshed in the background ahead of cache expiry. A token with an
+ * unknown {@code kid} triggers a refetch, at most once per {@code min-refetch-interval}.
+ * With {@code auth.jwks.fallback-file} set, the last good key set is kept on disk and used
+ * whenever the issuer is unreachable, including on a cold start.
+ */
+@Component
+@Slf4j
+public class JwksKeySource implements JWKSource<SecurityContext>, DisposableBean {
+
+    private static final JWKSelector ALL_KEYS = new JWKSelector(new JWKMatcher.Builder().build());
+
+    private final URL jwksUri;
+    private final JWKSource<SecurityContext> source;
+
+    public JwksKeySource(
+            @Value("${auth.jwks-uri}") URL jwksUri,
+            @Value("${auth.jwks.cache-ttl:15m}") Duration cacheTtl,
+            @Value("${auth.jwks.refresh-ahead:1m}") Duration refreshAhead,
+            @Value("${auth.jwks.min-refetch-interval:30s}") Duration minRefetchInterval,
+            @Value("${auth.jwks.fallback-file:}") String fallbackFile
+    ) {
+        this.jwksUri = jwksUri;
+        JWKSetSource<SecurityContext> remote = new URLBasedJWKSetSource<>(jwksUri, new DefaultResourceRetriever(
+                JWKSourceBuilder.DEFAULT_HTTP_CONNECT_TIMEOUT,
+                JWKSourceBuilder.DEFAULT_HTTP_READ_TIMEOUT,
+                JWKSourceBuilder.DEFAULT_HTTP_SIZE_LIMIT));
+        JWKSetSource<SecurityContext> base = fallbackFile.isBlank()
+                ? remote
+                : new FileBackedJWKSetSource(remote, Path.of(fallbackFile));
+        this.source = JWKSourceBuilder.create(base)
+                .cache(cacheTtl.toMillis(), JWKSourceBuilder.DEFAULT_CACHE_REFRESH_TIMEOUT)
+                .refreshAheadCache(refreshAhead.toMillis(), true)
+                .rateLimited(minRefetchInterval.toMillis())
+                .build();
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) throws KeySourceException {
+        return source.get(jwkSelector, context);
+    }
+
+    /**
+     * Returns the number of keys currently available, fetching them if none are cached yet.
+     */
+    public int load() throws KeySourceException {
+        return source.get(ALL_KEYS, null).size();
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void prefetch() {
+        try {
+            log.info("Loaded {} signing keys from {}", load(), jwksUri);
+        } catch (KeySourceException ex) {
+            log.warn("Could not prefetch signing keys from {}: {}", jwksUri, ex.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (source instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+}
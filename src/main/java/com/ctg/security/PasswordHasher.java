@@ -0,0 +1,191 @@
+package com.ctg.security;
+
+import com.ctg.dto.PasswordHashingStatsResponse;
+import com.ctg.exceptions.ServiceOverloadedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs password hashing on a dedicated, size-bounded pool with a bounded queue, so bursts of
+ * bcrypt work cannot occupy every request thread. When the queue is full the call fails fast
+ * with {@link ServiceOverloadedException} instead of piling up.
+ */
+@Component
+@Slf4j
+public class PasswordHasher implements DisposableBean, MeterBinder {
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final Duration retryAfter;
+
+    private final LongAdder hashCount = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Long::max, 0);
+    private final LongAdder rejectedCount = new LongAdder();
+    private volatile Timer hashTimer;
+
+    public PasswordHasher(
+            PasswordEncoder encoder,
+            @Value("${user.password-hashing.threads:0}") int threads,
+            @Value("${user.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${user.password-hashing.retry-after:2s}") Duration retryAfter
+    ) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.encoder = encoder;
+        this.queueCapacity = queueCapacity;
+        this.retryAfter = retryAfter;
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    public String hash(String rawPassword) {
+        Future<String> hashed;
+        try {
+            hashed = executor.submit(() -> timedEncode(rawPassword));
+        } catch (RejectedExecutionException ex) {
+            rejectedCount.increment();
+            log.warn("Password hashing queue is full ({} queued), rejecting request", executor.getQueue().size());
+            throw new ServiceOverloadedException("Password hashing capacity exceeded, retry later", retryAfter);
+        }
+        return await(hashed);
+    }
+
+    /**
+     * Hashes a batch in parallel on the same pool. At most one hash per pool thread is in
+     * flight for the batch, so bulk work leaves the queue to interactive requests. When the
+     * queue is full anyway the batch waits for its own in-flight hashes and retries; with
+     * nothing left to wait for it fails with {@link ServiceOverloadedException}. Bcrypt never
+     * runs on the calling thread.
+     */
+    public List<String> hashAll(List<String> rawPasswords) {
+        int maxInFlight = executor.getMaximumPoolSize();
+        List<Future<String>> pending = new ArrayList<>(rawPasswords.size());
+        int awaited = 0;
+        for (String rawPassword : rawPasswords) {
+            if (pending.size() - awaited >= maxInFlight) {
+                await(pending.get(awaited++));
+            }
+            Future<String> hashed = trySubmit(rawPassword);
+            while (hashed == null && awaited < pending.size()) {
+                await(pending.get(awaited++));
+                hashed = trySubmit(rawPassword);
+            }
+            if (hashed == null) {
+                rejectedCount.increment();
+                log.warn("Password hashing queue is full ({} queued), failing batch of {}",
+                        executor.getQueue().size(), rawPasswords.size());
+                throw new ServiceOverloadedException("Password hashing capacity exceeded, retry later", retryAfter);
+            }
+            pending.add(hashed);
+        }
+        return pending.stream().map(PasswordHasher::await).toList();
+    }
+
+    public PasswordHashingStatsResponse stats() {
+        long count = hashCount.sum();
+        return new PasswordHashingStatsResponse(
+                executor.getMaximumPoolSize(),
+                executor.getActiveCount(),
+                executor.getQueue().size(),
+                queueCapacity,
+                count,
+                rejectedCount.sum(),
+                count == 0 ? 0 : hashNanos.sum() / 1_000_000.0 / count,
+                maxHashNanos.get() / 1_000_000.0
+        );
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        hashTimer = Timer.builder("user.password.hash")
+                .description("Time spent computing a password hash")
+                .publishPercentileHistogram()
+                .register(registry);
+        Gauge.builder("user.password.hash.queue", executor, e -> e.getQueue().size())
+                .description("Hashes waiting for a pool thread")
+                .register(registry);
+        Gauge.builder("user.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Pool threads currently hashing")
+                .register(registry);
+        FunctionCounter.builder("user.password.hash.rejected", rejectedCount, LongAdder::sum)
+                .description("Hash requests rejected because the queue was full")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private Future<String> trySubmit(String rawPassword) {
+        try {
+            return executor.submit(() -> timedEncode(rawPassword));
+        } catch (RejectedExecutionException ex) {
+            return null;
+        }
+    }
+
+    private String timedEncode(String rawPassword) {
+        long start = System.nanoTime();
+        try {
+            return encoder.encode(rawPassword);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            hashCount.increment();
+            hashNanos.add(elapsed);
+            maxHashNanos.accumulate(elapsed);
+            Timer timer = hashTimer;
+            if (timer != null) {
+                timer.record(elapsed, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private static String await(Future<String> hashed) {
+        try {
+            return hashed.get();
+        } catch (InterruptedException ex) {
+            hashed.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", ex.getCause());
+        }
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "password-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.ctg.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times decoding and validation of every bearer token. Outcomes are tagged as success,
+ * invalid (malformed or failed validation) or error (e.g. JWKS unreachable).
+ */
+public class TimedJwtDecoder implements JwtDecoder {
+
+    static final String METRIC = "auth.jwt.decode";
+
+    private final JwtDecoder delegate;
+    private final Timer success;
+    private final Timer invalid;
+    private final Timer error;
+
+    public TimedJwtDecoder(JwtDecoder delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.success = timer(registry, "success");
+        this.invalid = timer(registry, "invalid");
+        this.error = timer(registry, "error");
+    }
+
+    @Override
+    public Jwt decode(String token) {
+        long start = System.nanoTime();
+        Timer outcome = error;
+        try {
+            Jwt jwt = delegate.decode(token);
+            outcome = success;
+            return jwt;
+        } catch (BadJwtException ex) {
+            outcome = invalid;
+            throw ex;
+        } finally {
+            outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Timer timer(MeterRegistry registry, String outcome) {
+        return Timer.builder(METRIC)
+                .description("JWT decode and validation time")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -0,0 +1,36 @@
+package com.ctg.security;
+
+import com.ctg.cache.TokenVersionCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+
+import java.util.List;
+
+/**
+ * Rejects tokens whose {@code ver} claim is older than the user's current token version.
+ * Sits in front of {@link CachingJwtDecoder}, so cached tokens are still checked on every
+ * request. Tokens without {@code uid} or {@code ver} are not checked.
+ */
+@RequiredArgsConstructor
+public class TokenVersionJwtDecoder implements JwtDecoder {
+
+    static final String VERSION_CLAIM = "ver";
+    private static final OAuth2Error REVOKED = new OAuth2Error("invalid_token", "Token has been revoked", null);
+
+    private final JwtDecoder delegate;
+    private final TokenVersionCache tokenVersions;
+
+    @Override
+    public Jwt decode(String token) {
+        Jwt jwt = delegate.decode(token);
+        if (jwt.getClaims().get("uid") instanceof Number uid
+                && jwt.getClaims().get(VERSION_CLAIM) instanceof Number version
+                && !tokenVersions.isCurrent(uid.longValue(), version.intValue())) {
+            throw new JwtValidationException(REVOKED.getDescription(), List.of(REVOKED));
+        }
+        return jwt;
+    }
+}
@@ -0,0 +1,35 @@
+package com.ctg.service;
+
+import com.ctg.repository.KeysetSortField;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position: the sort field and direction of the listing plus the sort key
+ * and id of the last row returned. Encoded as URL-safe Base64 so clients treat it as a token.
+ */
+record UserCursor(KeysetSortField sortField, Sort.Direction direction, String lastKey, Long lastId) {
+
+    private static final String SEPARATOR = "|";
+
+    String encode() {
+        String raw = String.join(SEPARATOR, sortField.name(), direction.name(), String.valueOf(lastId), lastKey);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static UserCursor decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = raw.split("\\|", 4);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return new UserCursor(
+                KeysetSortField.valueOf(parts[0]),
+                Sort.Direction.valueOf(parts[1]),
+                parts[3],
+                Long.parseLong(parts[2])
+        );
+    }
+}
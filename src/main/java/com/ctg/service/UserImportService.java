@@ -0,0 +1,18 @@
+package com.ctg.service;
+
+import com.ctg.dto.ImportRowResult;
+import com.ctg.dto.ImportSummary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface UserImportService {
+
+    /**
+     * Reads users from {@code input} one row at a time and inserts them in batches.
+     * Row results are handed to {@code results} once per batch, in input order.
+     */
+    ImportSummary importUsers(InputStream input, ImportFormat format, Consumer<List<ImportRowResult>> results) throws IOException;
+}
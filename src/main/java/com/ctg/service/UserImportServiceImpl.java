@@ -0,0 +1,427 @@
+package com.ctg.service;
+
+import com.ctg.dto.ErrorField;
+import com.ctg.dto.ImportRowResult;
+import com.ctg.dto.ImportSummary;
+import com.ctg.dto.UserRequest;
+import com.ctg.exceptions.ValidationException;
+import com.ctg.model.Role;
+import com.ctg.model.User;
+import com.ctg.security.PasswordHasher;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Streams users from NDJSON or CSV input. Rows are parsed and validated one at a time (a CSV
+ * row spans several lines when a quoted field contains line breaks),
+ * passwords of a batch are hashed in parallel, and each batch is inserted in its own
+ * transaction, so memory use is bounded by the batch size rather than the input size.
+ * <p>
+ * Batches are loaded with COPY into a session-local staging table when the connection is a
+ * Postgres one, otherwise with a JDBC batch insert. Both paths skip existing emails via
+ * {@code ON CONFLICT DO NOTHING} and report them as duplicates.
+ */
+@Service
+@Slf4j
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final int MAX_CSV_ROW_LENGTH = 64 * 1024;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO users (full_name, email, password, role) VALUES (?, ?, ?, ?) ON CONFLICT DO NOTHING";
+    private static final String CREATE_STAGING_SQL =
+            "CREATE TEMP TABLE IF NOT EXISTS users_import (row_no INT NOT NULL, full_name VARCHAR(255), "
+                    + "email VARCHAR(255), password VARCHAR(255), role VARCHAR(20)) ON COMMIT DELETE ROWS";
+    private static final String COPY_SQL =
+            "COPY users_import (row_no, full_name, email, password, role) FROM STDIN WITH (FORMAT csv)";
+    private static final String MERGE_SQL =
+            "INSERT INTO users (full_name, email, password, role) "
+                    + "SELECT full_name, email, password, role FROM users_import ORDER BY row_no "
+                    + "ON CONFLICT DO NOTHING RETURNING id, email";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordHasher passwordHasher;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final boolean copyEnabled;
+
+    public UserImportServiceImpl(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            PasswordHasher passwordHasher,
+            Validator validator,
+            ObjectMapper objectMapper,
+            @Value("${user.import.batch-size:500}") int batchSize,
+            @Value("${user.import.copy-enabled:true}") boolean copyEnabled
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordHasher = passwordHasher;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.copyEnabled = copyEnabled;
+    }
+
+    @Override
+    public ImportSummary importUsers(InputStream input, ImportFormat format,
+                                     Consumer<List<ImportRowResult>> results) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        boolean csv = format == ImportFormat.CSV;
+        RowParser parser;
+        if (csv) {
+            String header = reader.readLine();
+            if (header == null) {
+                return new ImportSummary(0, 0, 0, 0);
+            }
+            parser = new CsvRowParser(header);
+        } else {
+            parser = this::parseJson;
+        }
+
+        Batch batch = new Batch(results);
+        int row = 0;
+        String line;
+        while ((line = nextRecord(reader, csv)) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            row++;
+            ParsedRow parsed = parser.parse(line);
+            List<ErrorField> errors = parsed.errors().isEmpty() ? validate(parsed.request()) : parsed.errors();
+            if (errors.isEmpty()) {
+                batch.addPending(row, parsed.request());
+            } else {
+                batch.addResult(ImportRowResult.invalid(row, parsed.email(), errors));
+            }
+            if (batch.size() >= batchSize) {
+                flush(batch);
+            }
+        }
+        flush(batch);
+
+        log.info("Imported users: {} rows, {} created, {} duplicates, {} invalid",
+                row, batch.created, batch.duplicates, batch.invalid);
+        return new ImportSummary(row, batch.created, batch.duplicates, batch.invalid);
+    }
+
+    /**
+     * Next input row: one line, or for CSV as many lines as it takes to close an open quoted
+     * field (RFC 4180). Line breaks inside the field are kept as {@code \n}. A quote left open
+     * stops extending the row after {@link #MAX_CSV_ROW_LENGTH} characters or at the end of
+     * the input, and the row is then reported as invalid.
+     */
+    private static String nextRecord(BufferedReader reader, boolean csv) throws IOException {
+        String line = reader.readLine();
+        if (!csv || line == null) {
+            return line;
+        }
+        int quotes = countQuotes(line);
+        if (quotes % 2 == 0) {
+            return line;
+        }
+        StringBuilder record = new StringBuilder(line);
+        while (quotes % 2 == 1 && record.length() < MAX_CSV_ROW_LENGTH && (line = reader.readLine()) != null) {
+            record.append('\n').append(line);
+            quotes += countQuotes(line);
+        }
+        return record.toString();
+    }
+
+    // Escaped quotes come in pairs, so an odd count means a quoted field is still open
+    private static int countQuotes(String line) {
+        int quotes = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes;
+    }
+
+    private void flush(Batch batch) {
+        if (batch.size() == 0) {
+            return;
+        }
+        if (!batch.pending.isEmpty()) {
+            List<String> hashes = passwordHasher.hashAll(
+                    batch.pending.stream().map(p -> p.request().getPassword()).toList());
+            List<ImportRowResult> inserted = transactionTemplate.execute(status -> insert(batch.pending, hashes));
+            for (int i = 0; i < batch.pending.size(); i++) {
+                batch.slots.set(batch.pending.get(i).slot(), inserted.get(i));
+            }
+        }
+        batch.publish();
+    }
+
+    private List<ImportRowResult> insert(List<PendingRow> rows, List<String> hashes) {
+        if (!copyEnabled) {
+            return batchInsert(rows, hashes);
+        }
+        return jdbcTemplate.execute((ConnectionCallback<List<ImportRowResult>>) connection ->
+                connection.isWrapperFor(PGConnection.class)
+                        ? copyInsert(connection.unwrap(PGConnection.class), rows, hashes)
+                        : batchInsert(rows, hashes));
+    }
+
+    private List<ImportRowResult> copyInsert(PGConnection connection, List<PendingRow> rows, List<String> hashes)
+            throws SQLException {
+        StringBuilder csv = new StringBuilder(rows.size() * 128);
+        for (int i = 0; i < rows.size(); i++) {
+            UserRequest request = rows.get(i).request();
+            csv.append(i).append(',')
+                    .append(csvField(request.getFullName())).append(',')
+                    .append(csvField(User.normalizeEmail(request.getEmail()))).append(',')
+                    .append(csvField(hashes.get(i))).append(',')
+                    .append(request.getRole().name()).append('\n');
+        }
+
+        jdbcTemplate.execute(CREATE_STAGING_SQL);
+        try {
+            connection.getCopyAPI().copyIn(COPY_SQL, new StringReader(csv.toString()));
+        } catch (IOException ex) {
+            throw new SQLException("COPY into users_import failed", ex);
+        }
+
+        Map<String, Long> insertedIds = new HashMap<>();
+        jdbcTemplate.query(MERGE_SQL, rs -> {
+            insertedIds.put(rs.getString("email"), rs.getLong("id"));
+        });
+
+        List<ImportRowResult> results = new ArrayList<>(rows.size());
+        for (PendingRow row : rows) {
+            String email = row.request().getEmail();
+            Long id = insertedIds.remove(User.normalizeEmail(email));
+            results.add(id != null
+                    ? ImportRowResult.created(row.row(), email, id)
+                    : ImportRowResult.duplicate(row.row(), email));
+        }
+        return results;
+    }
+
+    private List<ImportRowResult> batchInsert(List<PendingRow> rows, List<String> hashes) {
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                UserRequest request = rows.get(i).request();
+                ps.setString(1, request.getFullName());
+                ps.setString(2, User.normalizeEmail(request.getEmail()));
+                ps.setString(3, hashes.get(i));
+                ps.setString(4, request.getRole().name());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+
+        List<ImportRowResult> results = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            PendingRow row = rows.get(i);
+            String email = row.request().getEmail();
+            results.add(counts[i] == 0
+                    ? ImportRowResult.duplicate(row.row(), email)
+                    : ImportRowResult.created(row.row(), email, null));
+        }
+        return results;
+    }
+
+    private ParsedRow parseJson(String line) {
+        try {
+            UserRequest request = objectMapper.readValue(line, UserRequest.class);
+            if (request == null) {
+                return ParsedRow.failed(null, new ErrorField("row", "Row must be a JSON object"));
+            }
+            return new ParsedRow(request, request.getEmail(), List.of());
+        } catch (JsonProcessingException ex) {
+            return ParsedRow.failed(null, new ErrorField("row", "Malformed JSON: " + ex.getOriginalMessage()));
+        }
+    }
+
+    private List<ErrorField> validate(UserRequest request) {
+        Set<ConstraintViolation<UserRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return List.of();
+        }
+        return violations.stream()
+                .map(v -> new ErrorField(v.getPropertyPath().toString(), v.getMessage()))
+                .sorted(Comparator.comparing(ErrorField::getField).thenComparing(ErrorField::getMessage))
+                .toList();
+    }
+
+    private static String csvField(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private record PendingRow(int slot, int row, UserRequest request) {}
+
+    private record ParsedRow(UserRequest request, String email, List<ErrorField> errors) {
+        static ParsedRow failed(String email, ErrorField error) {
+            return new ParsedRow(null, email, List.of(error));
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        ParsedRow parse(String line);
+    }
+
+    /** Results of the current batch in input order; pending rows hold a slot until inserted. */
+    private static final class Batch {
+        private final Consumer<List<ImportRowResult>> sink;
+        private final List<ImportRowResult> slots = new ArrayList<>();
+        private final List<PendingRow> pending = new ArrayList<>();
+        private long created;
+        private long duplicates;
+        private long invalid;
+
+        private Batch(Consumer<List<ImportRowResult>> sink) {
+            this.sink = sink;
+        }
+
+        void addPending(int row, UserRequest request) {
+            pending.add(new PendingRow(slots.size(), row, request));
+            slots.add(null);
+        }
+
+        void addResult(ImportRowResult result) {
+            slots.add(result);
+        }
+
+        int size() {
+            return slots.size();
+        }
+
+        void publish() {
+            for (ImportRowResult result : slots) {
+                switch (result.status()) {
+                    case CREATED -> created++;
+                    case DUPLICATE -> duplicates++;
+                    case INVALID -> invalid++;
+                }
+            }
+            sink.accept(List.copyOf(slots));
+            slots.clear();
+            pending.clear();
+        }
+    }
+
+    /** Maps CSV columns by header name; fields may be double-quoted with {@code ""} escapes. */
+    private static final class CsvRowParser implements RowParser {
+        private static final List<String> COLUMNS = List.of("fullname", "email", "password", "role");
+
+        private final int columnCount;
+        private final int[] positions = new int[COLUMNS.size()];
+
+        private CsvRowParser(String header) {
+            List<String> names = split(header.startsWith("\uFEFF") ? header.substring(1) : header);
+            columnCount = names.size();
+            for (int c = 0; c < COLUMNS.size(); c++) {
+                int position = -1;
+                for (int i = 0; i < names.size(); i++) {
+                    if (COLUMNS.get(c).equals(names.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT))) {
+                        position = i;
+                    }
+                }
+                if (position < 0) {
+                    throw new ValidationException(List.of(new ErrorField("header",
+                            "CSV header must contain fullName, email, password and role columns")));
+                }
+                positions[c] = position;
+            }
+        }
+
+        @Override
+        public ParsedRow parse(String line) {
+            List<String> fields;
+            try {
+                fields = split(line);
+            } catch (IllegalArgumentException ex) {
+                return ParsedRow.failed(null, new ErrorField("row", ex.getMessage()));
+            }
+            if (fields.size() != columnCount) {
+                return ParsedRow.failed(null, new ErrorField("row",
+                        "Expected " + columnCount + " columns but found " + fields.size()));
+            }
+
+            String email = blankToNull(fields.get(positions[1]));
+            String role = blankToNull(fields.get(positions[3]));
+            Role parsedRole = null;
+            if (role != null) {
+                try {
+                    parsedRole = Role.valueOf(role.trim().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException ex) {
+                    return ParsedRow.failed(email, new ErrorField("role",
+                            "Role must be one of " + Arrays.toString(Role.values())));
+                }
+            }
+            UserRequest request = UserRequest.builder()
+                    .fullName(blankToNull(fields.get(positions[0])))
+                    .email(email)
+                    .password(blankToNull(fields.get(positions[2])))
+                    .role(parsedRole)
+                    .build();
+            return new ParsedRow(request, email, List.of());
+        }
+
+        private static String blankToNull(String value) {
+            return value.isBlank() ? null : value;
+        }
+
+        private static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char ch = line.charAt(i);
+                if (quoted) {
+                    if (ch == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (ch == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(ch);
+                    }
+                } else if (ch == '"') {
+                    quoted = true;
+                } else if (ch == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(ch);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -1,19 +1,42 @@
 package com.ctg.service;
 
+import com.ctg.dto.BatchResponse;
+import com.ctg.dto.CollectionVersion;
+import com.ctg.dto.CursorPagedResponse;
 import com.ctg.dto.LoginUserResponse;
 import com.ctg.dto.PagedResponse;
+import com.ctg.dto.UserFilter;
+import com.ctg.dto.UserPatchRequest;
+import com.ctg.dto.SliceResponse;
 import com.ctg.dto.UserRequest;
 import com.ctg.dto.UserResponse;
+import com.ctg.dto.UserVersion;
+import com.ctg.dto.VersionedUserResponse;
 import org.springframework.security.oauth2.jwt.Jwt;
 
+import java.util.List;
+import java.util.function.Consumer;
+
 public interface UserService {
     UserResponse get(Long id);
     UserResponse create(UserRequest newUser);
-    UserResponse update(Long id, UserRequest updatedUser);
+    VersionedUserResponse update(Long id, UserRequest updatedUser, Long expectedVersion);
+    VersionedUserResponse patch(Long id, UserPatchRequest patch, Long expectedVersion);
     void delete(Long id);
-    PagedResponse<UserResponse> getByPage(int pageNo, int pageSize, String sortBy, String sortDir);
+    PagedResponse<UserResponse> getByPageWithKnownTotal(int pageNo, int pageSize, String sortBy, String sortDir, long totalElements);
+    PagedResponse<UserResponse> getByPageWithEstimatedTotal(int pageNo, int pageSize, String sortBy, String sortDir);
+    SliceResponse<UserResponse> getSliceByPage(int pageNo, int pageSize, String sortBy, String sortDir);
+    PagedResponse<UserResponse> search(UserFilter filter, int pageNo, int pageSize, String sortBy, String sortDir);
+    SliceResponse<UserResponse> searchSlice(UserFilter filter, int pageNo, int pageSize, String sortBy, String sortDir);
+    CursorPagedResponse<UserResponse> getByCursor(UserFilter filter, String after, int pageSize, String sortBy, String sortDir);
     LoginUserResponse findByEmailForLogin(String email);
-    void incrementTokenVersion(Long id);
+    int incrementTokenVersion(Long id);
     UserResponse getByEmail(String email);
     UserResponse getCurrent(Jwt jwt);
+    UserVersion getVersion(Long id);
+    UserVersion getCurrentVersion(Jwt jwt);
+    CollectionVersion getCollectionVersion();
+    BatchResponse<Long, UserResponse> getByIds(List<Long> ids);
+    BatchResponse<String, UserResponse> getByEmails(List<String> emails);
+    long exportAll(Consumer<UserResponse> sink);
 }
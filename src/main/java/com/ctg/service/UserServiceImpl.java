@@ -1,23 +1,44 @@
 package com.ctg.service;
 
+import com.ctg.cache.LoginUserCache;
+import com.ctg.cache.TokenVersionCache;
+import com.ctg.cache.UserJsonCache;
+import com.ctg.datasource.ReplicaRoutingDataSource;
 import com.ctg.dto.*;
+import com.ctg.exceptions.PreconditionFailedException;
 import com.ctg.exceptions.ResourceNotFoundException;
 import com.ctg.exceptions.ValidationException;
 import com.ctg.model.User;
+import com.ctg.repository.KeysetSortField;
 import com.ctg.repository.UserRepository;
+import com.ctg.repository.UserSpecifications;
 import com.ctg.mapper.UserMapper;
 import com.ctg.security.CurrentUserIdExtractor;
+import com.ctg.security.PasswordHasher;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -27,59 +48,151 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
-    private final PasswordEncoder encoder;
+    private final PasswordHasher passwordHasher;
     private final CurrentUserIdExtractor currentUserIdExtractor;
+    private final LoginUserCache loginUserCache;
+    private final UserJsonCache userJsonCache;
+    private final TokenVersionCache tokenVersionCache;
+    private final TransactionOperations transactionOperations;
+
+    @Value("${user.batch.max-size:100}")
+    private int batchMaxSize;
 
     @Override
     @Transactional(readOnly = true)
     public UserResponse get(Long id) {
-        return userRepository.findById(id)
-                .map(userMapper::toDto)
+        return userRepository.findResponseById(id)
                 .orElseThrow(() -> {
                    log.error("User not found with id {}", id);
                    return new ResourceNotFoundException("User not found with id " + id);
                 });
     }
 
+    // No surrounding transaction: the insert runs in the repository's own transaction, so no
+    // database connection is held while the password is being hashed.
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserResponse create(@Valid UserRequest userDto) {
-        if (userRepository.existsByEmail(userDto.getEmail())) {
-            log.error("Email already exists {}", userDto.getEmail());
-            throw new ValidationException(List.of(new ErrorField("email", "Email already exists")));
-        }
-
         var newUser = User.builder()
                 .email(userDto.getEmail())
                 .role(userDto.getRole())
                 .fullName(userDto.getFullName())
-                .password(encoder.encode(userDto.getPassword()))
+                .password(passwordHasher.hash(userDto.getPassword()))
                 .tokenVersion(0)
                 .build();
 
-        var savedUser = userRepository.save(newUser);
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(newUser);
+        } catch (DataIntegrityViolationException ex) {
+            throw translateIntegrityViolation(ex, userDto.getEmail());
+        }
         log.debug("Created new user {}", newUser);
 
         return userMapper.toDto(savedUser);
     }
 
+    /**
+     * Applies the update if the user is still at {@code expectedVersion} (any version when null).
+     * <p>
+     * Like {@link #create}, the password is hashed before the transaction starts, so no
+     * database connection is held during bcrypt.
+     */
     @Override
-    public UserResponse update(Long id, @Valid UserRequest userDto) {
-        return userRepository.findById(id)
-                .map(existingUser -> {
-                    if (!existingUser.getEmail().equals(userDto.getEmail())
-                            && userRepository.existsByEmail(userDto.getEmail())) {
-                        log.error("Email already exists {}", userDto.getEmail());
-                        throw new ValidationException(List.of(new ErrorField("email", "Email already exists")));
-                    }
-                    userMapper.updateEntityFromDto(userDto, existingUser);
-                    log.debug("Newly updated user {}", existingUser);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public VersionedUserResponse update(Long id, @Valid UserRequest userDto, Long expectedVersion) {
+        String passwordHash = passwordHasher.hash(userDto.getPassword());
+        return applyChanges(id, expectedVersion, userDto.getEmail(), changedFields -> {
+            userMapper.updateEntityFromDto(userDto, changedFields);
+            changedFields.setPassword(passwordHash);
+        });
+    }
+
+    /**
+     * Only the supplied fields are changed and written. The password is
+     * hashed only when the patch contains one, and before the transaction starts. An empty
+     * patch writes nothing and leaves the version as it is.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public VersionedUserResponse patch(Long id, @Valid UserPatchRequest patch, Long expectedVersion) {
+        if (isEmpty(patch)) {
+            return unchanged(id, expectedVersion);
+        }
+        String passwordHash = patch.getPassword() == null ? null : passwordHasher.hash(patch.getPassword());
+        return applyChanges(id, expectedVersion, patch.getEmail(), changedFields -> {
+            userMapper.patchEntity(patch, changedFields);
+            if (passwordHash != null) {
+                changedFields.setPassword(passwordHash);
+            }
+        });
+    }
 
-                    return userMapper.toDto(existingUser);
+    /**
+     * The changes are collected on a detached {@link User} and written by one conditional UPDATE
+     * ({@code where id = ? and version = ?}); the row is not read first. When no row is updated,
+     * an existence probe tells a stale version (412) from a missing user (404).
+     */
+    private VersionedUserResponse applyChanges(Long id, Long expectedVersion, String email, Consumer<User> changes) {
+        User changedFields = new User();
+        changes.accept(changedFields);
 
-                }).orElseThrow(() -> {
-                    log.error("User not found with id {}", id);
-                    return new ResourceNotFoundException("User not found with id: " + id);
-                });
+        return transactionOperations.execute(status -> {
+            int updated;
+            try {
+                updated = userRepository.updateIfVersion(id, expectedVersion, changedFields);
+            } catch (DataIntegrityViolationException ex) {
+                throw translateIntegrityViolation(ex, email);
+            }
+            if (updated == 0) {
+                throw expectedVersion != null && userRepository.existsById(id) ? staleVersion(id) : userNotFound(id);
+            }
+            loginUserCache.evict(id);
+            userJsonCache.evict(id);
+            log.debug("Newly updated user {}", id);
+
+            return userRepository.findVersionedResponseById(id).orElseThrow(() -> userNotFound(id));
+        });
+    }
+
+    private static boolean isEmpty(UserPatchRequest patch) {
+        return patch.getFullName() == null && patch.getEmail() == null
+                && patch.getPassword() == null && patch.getRole() == null;
+    }
+
+    // The If-Match check of an update still applies, so a stale version fails here too
+    private VersionedUserResponse unchanged(Long id, Long expectedVersion) {
+        VersionedUserResponse current = transactionOperations.execute(status ->
+                userRepository.findVersionedResponseById(id).orElseThrow(() -> userNotFound(id)));
+        if (expectedVersion != null && current.version() != expectedVersion) {
+            throw staleVersion(id);
+        }
+        return current;
+    }
+
+    private static ResourceNotFoundException userNotFound(Long id) {
+        log.error("User not found with id {}", id);
+        return new ResourceNotFoundException("User not found with id: " + id);
+    }
+
+    private static PreconditionFailedException staleVersion(Long id) {
+        log.warn("Rejected update of user {} based on a stale version", id);
+        return new PreconditionFailedException("User " + id + " has been modified, fetch it again and retry");
+    }
+
+    /**
+     * Maps a violation of the email unique constraint to the regular 422 "Email already exists"
+     * payload. The constraint is the only duplicate check, so concurrent writes cannot race past it.
+     */
+    private static RuntimeException translateIntegrityViolation(DataIntegrityViolationException ex, String email) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                    && UserRepository.EMAIL_UNIQUE_CONSTRAINT.equalsIgnoreCase(violation.getConstraintName())) {
+                log.error("Email already exists {}", email);
+                return new ValidationException(List.of(new ErrorField("email", "Email already exists")));
+            }
+        }
+        return ex;
     }
 
     @Override
@@ -89,29 +202,76 @@ public class UserServiceImpl implements UserService {
             throw new ResourceNotFoundException("User not found with id: " + id);
         }
         userRepository.deleteById(id);
+        loginUserCache.evict(id);
+        userJsonCache.evict(id);
+        tokenVersionCache.revoke(id);
         log.debug("User is deleted by id {}", id);
     }
 
+    /**
+     * Exact page for a total the caller has already counted, so the table is not counted twice.
+     */
     @Transactional(readOnly = true)
     @Override
-    public PagedResponse<UserResponse> getByPage(int pageNo, int pageSize, String sortBy, String sortDir) {
-        log.info("page params : {}, {}, {}, {}", pageNo, pageSize, sortBy, sortDir);
+    public PagedResponse<UserResponse> getByPageWithKnownTotal(int pageNo, int pageSize, String sortBy, String sortDir,
+                                                               long totalElements) {
+        log.info("page params with known total : {}, {}, {}, {}, {}", pageNo, pageSize, sortBy, sortDir, totalElements);
 
-        var direction = Sort.Direction.fromOptionalString(sortDir).orElse(Sort.Direction.ASC);
-        var sort = Sort.by(direction, sortBy);
-        var pageRequest = PageRequest.of(pageNo, pageSize, sort);
+        var slicedUsers = userRepository.findResponseSlice(pageRequest(pageNo, pageSize, sortBy, sortDir));
+        int totalPages = (int) ((totalElements + pageSize - 1) / pageSize);
 
-        var pagedUsers = userRepository.findAll(pageRequest);
-        log.debug("Paged users count {}, total pages {}, total elements {}",
-                pagedUsers.getSize(), pagedUsers.getTotalPages(), pagedUsers.getTotalElements());
+        return new PagedResponse<>(slicedUsers.getContent(), pageNo, pageSize, totalElements, totalPages);
+    }
 
-        var pageList = pagedUsers
-                .stream()
-                .map(userMapper::toDto)
-                .toList();
+    @Transactional(readOnly = true)
+    @Override
+    public PagedResponse<UserResponse> getByPageWithEstimatedTotal(int pageNo, int pageSize, String sortBy, String sortDir) {
+        log.info("page params with estimated total : {}, {}, {}, {}", pageNo, pageSize, sortBy, sortDir);
+
+        var pageRequest = pageRequest(pageNo, pageSize, sortBy, sortDir);
+        var slicedUsers = userRepository.findResponseSlice(pageRequest);
+
+        long offset = pageRequest.getOffset();
+        long seen = offset + slicedUsers.getNumberOfElements();
+        long totalElements;
+        if (!slicedUsers.hasNext() && (slicedUsers.hasContent() || offset == 0)) {
+            // Reached the end of the table, so the total is known exactly for free.
+            totalElements = seen;
+        } else {
+            // Mid-table the total exceeds what we have read; past the end it is below the offset.
+            long estimate = userRepository.estimateCount();
+            if (estimate <= 0) {
+                totalElements = userRepository.count();
+            } else {
+                totalElements = slicedUsers.hasNext() ? Math.max(estimate, seen + 1) : Math.min(estimate, offset);
+            }
+        }
+        int totalPages = (int) ((totalElements + pageSize - 1) / pageSize);
+        log.debug("Paged users count {}, estimated total elements {}", slicedUsers.getNumberOfElements(), totalElements);
+
+        return new PagedResponse<>(slicedUsers.getContent(), pageNo, pageSize, totalElements, totalPages);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public SliceResponse<UserResponse> getSliceByPage(int pageNo, int pageSize, String sortBy, String sortDir) {
+        log.info("slice params : {}, {}, {}, {}", pageNo, pageSize, sortBy, sortDir);
+
+        var slicedUsers = userRepository.findResponseSlice(pageRequest(pageNo, pageSize, sortBy, sortDir));
+
+        return new SliceResponse<>(slicedUsers.getContent(), slicedUsers.getNumber(), slicedUsers.getSize(), slicedUsers.hasNext());
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public PagedResponse<UserResponse> search(UserFilter filter, int pageNo, int pageSize, String sortBy, String sortDir) {
+        log.info("search params : {}, {}, {}, {}, {}", filter, pageNo, pageSize, sortBy, sortDir);
+
+        var pagedUsers = userRepository.findResponses(searchSpecification(filter),
+                pageRequest(pageNo, pageSize, sortBy, sortDir));
 
         return new PagedResponse<>(
-                pageList,
+                pagedUsers.getContent(),
                 pagedUsers.getNumber(),
                 pagedUsers.getSize(),
                 pagedUsers.getTotalElements(),
@@ -119,35 +279,123 @@ public class UserServiceImpl implements UserService {
         );
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public SliceResponse<UserResponse> searchSlice(UserFilter filter, int pageNo, int pageSize, String sortBy, String sortDir) {
+        log.info("search slice params : {}, {}, {}, {}, {}", filter, pageNo, pageSize, sortBy, sortDir);
+
+        var slicedUsers = userRepository.findResponseSlice(searchSpecification(filter),
+                pageRequest(pageNo, pageSize, sortBy, sortDir));
+
+        return new SliceResponse<>(slicedUsers.getContent(), slicedUsers.getNumber(), slicedUsers.getSize(), slicedUsers.hasNext());
+    }
+
+    /**
+     * Rejects filters that could not use an index or can never match: substrings shorter than
+     * a trigram and empty created-at ranges.
+     */
+    private static Specification<User> searchSpecification(UserFilter filter) {
+        List<ErrorField> errors = new ArrayList<>();
+        if (filter.q() != null && !filter.q().isBlank()
+                && filter.q().strip().length() < UserSpecifications.MIN_SUBSTRING_LENGTH) {
+            errors.add(new ErrorField("q", "Search text must be at least "
+                    + UserSpecifications.MIN_SUBSTRING_LENGTH + " characters"));
+        }
+        if (filter.createdFrom() != null && filter.createdTo() != null
+                && !filter.createdFrom().isBefore(filter.createdTo())) {
+            errors.add(new ErrorField("createdTo", "createdTo must be after createdFrom"));
+        }
+        if (!errors.isEmpty()) {
+            throw new ValidationException(errors);
+        }
+        return UserSpecifications.matching(filter);
+    }
+
+    private static PageRequest pageRequest(int pageNo, int pageSize, String sortBy, String sortDir) {
+        var direction = Sort.Direction.fromOptionalString(sortDir).orElse(Sort.Direction.ASC);
+        var sort = Sort.by(direction, sortBy);
+        return PageRequest.of(pageNo, pageSize, sort);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPagedResponse<UserResponse> getByCursor(UserFilter filter, String after, int pageSize, String sortBy, String sortDir) {
+        log.info("cursor page params : {}, {}, {}, {}, {}", filter, after, pageSize, sortBy, sortDir);
+        if (pageSize < 1) {
+            throw new ValidationException(List.of(new ErrorField("size", "Page size must be at least 1")));
+        }
+
+        Specification<User> spec = searchSpecification(filter);
+        UserCursor cursor = after == null || after.isBlank()
+                ? firstPageCursor(sortBy, sortDir)
+                : decodeCursor(after);
+
+        List<UserResponse> users = userRepository.findPageAfter(spec,
+                cursor.sortField(), cursor.direction(), cursor.lastKey(), cursor.lastId(), pageSize + 1);
+
+        boolean hasNext = users.size() > pageSize;
+        List<UserResponse> page = hasNext ? users.subList(0, pageSize) : users;
+        String nextCursor = null;
+        if (hasNext) {
+            UserResponse last = page.getLast();
+            nextCursor = new UserCursor(cursor.sortField(), cursor.direction(),
+                    cursor.sortField().keyOf(last), last.getId()).encode();
+        }
+
+        return new CursorPagedResponse<>(page, pageSize, nextCursor, hasNext);
+    }
+
+    private static UserCursor firstPageCursor(String sortBy, String sortDir) {
+        var sortField = KeysetSortField.fromProperty(sortBy)
+                .orElseThrow(() -> new ValidationException(List.of(new ErrorField("sort",
+                        "Cursor pagination supports sorting by id, fullName or email only"))));
+        var direction = Sort.Direction.fromOptionalString(sortDir).orElse(Sort.Direction.ASC);
+
+        return new UserCursor(sortField, direction, null, null);
+    }
+
+    private static UserCursor decodeCursor(String after) {
+        try {
+            return UserCursor.decode(after);
+        } catch (IllegalArgumentException ex) {
+            log.error("Invalid cursor {}", after);
+            throw new ValidationException(List.of(new ErrorField("after", "Invalid cursor")));
+        }
+    }
+
+    // Logins must see password and token version changes at once, so they never read the replica
+    @Override
     @Transactional(readOnly = true)
     public LoginUserResponse findByEmailForLogin(String email) {
-        User foundUser = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
+        return loginUserCache.get(email, e -> ReplicaRoutingDataSource.onPrimary(() -> loadLoginUser(e)));
+    }
 
-        return LoginUserResponse.builder()
-                .id(foundUser.getId())
-                .email(foundUser.getEmail())
-                .passwordHash(foundUser.getPassword())
-                .role(foundUser.getRole())
-                .tokenVersion(foundUser.getTokenVersion())
-                .build();
+    private LoginUserResponse loadLoginUser(String email) {
+        return userRepository.findLoginByEmail(User.normalizeEmail(email))
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
     }
 
-    public void incrementTokenVersion(Long id) {
-        var user = userRepository.findById(id)
+    @Override
+    public int incrementTokenVersion(Long id) {
+        int newVersion = userRepository.incrementTokenVersion(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
 
-        user.setTokenVersion(user.getTokenVersion() + 1);
+        loginUserCache.evict(id);
+        userJsonCache.evict(id);
+        tokenVersionCache.update(id, newVersion);
+        log.debug("Token version of user {} incremented to {}", id, newVersion);
+        return newVersion;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserResponse getByEmail(String email) {
-        return userRepository.findByEmail(email)
-                .map(userMapper::toDto)
+        return userRepository.findResponseByEmail(User.normalizeEmail(email))
                 .orElseThrow(() -> new ResourceNotFoundException("Not found by email " + email));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserResponse getCurrent(Jwt jwt) {
         CurrentUserIdExtractor.UserId userId = currentUserIdExtractor.resolve(jwt);
 
@@ -156,4 +404,94 @@ public class UserServiceImpl implements UserService {
             case CurrentUserIdExtractor.UserId.Subject email -> getByEmail(email.value());
         };
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserVersion getVersion(Long id) {
+        return userRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id " + id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserVersion getCurrentVersion(Jwt jwt) {
+        CurrentUserIdExtractor.UserId userId = currentUserIdExtractor.resolve(jwt);
+
+        return switch (userId) {
+            case CurrentUserIdExtractor.UserId.Numeric id -> getVersion(id.value());
+            case CurrentUserIdExtractor.UserId.Subject email -> userRepository
+                    .findVersionByEmail(User.normalizeEmail(email.value()))
+                    .orElseThrow(() -> new ResourceNotFoundException("Not found by email " + email.value()));
+        };
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CollectionVersion getCollectionVersion() {
+        // Counter first: the page read afterwards is never older than the ETag it is served with
+        long changes = userRepository.findChangeCount();
+        return new CollectionVersion(userRepository.count(), changes);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BatchResponse<Long, UserResponse> getByIds(List<Long> ids) {
+        var requestedIds = distinctWithinLimit(ids, "ids");
+
+        Map<Long, UserResponse> foundById = userRepository.findResponsesByIdIn(requestedIds)
+                .stream()
+                .collect(Collectors.toMap(UserResponse::getId, Function.identity()));
+
+        return toBatchResponse(requestedIds, foundById);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BatchResponse<String, UserResponse> getByEmails(List<String> emails) {
+        var requestedEmails = distinctWithinLimit(emails.stream().map(User::normalizeEmail).toList(), "emails");
+
+        Map<String, UserResponse> foundByEmail = userRepository.findResponsesByEmailIn(requestedEmails)
+                .stream()
+                .collect(Collectors.toMap(UserResponse::getEmail, Function.identity()));
+
+        return toBatchResponse(requestedEmails, foundByEmail);
+    }
+
+    // Rows are handed to the sink while the cursor is open; projections are not managed
+    // entities, so nothing accumulates in the persistence context however many rows there are.
+    @Override
+    @Transactional(readOnly = true)
+    public long exportAll(Consumer<UserResponse> sink) {
+        long count = 0;
+        try (Stream<UserResponse> users = userRepository.streamAllResponses()) {
+            for (var iterator = users.iterator(); iterator.hasNext(); count++) {
+                sink.accept(iterator.next());
+            }
+        }
+        log.info("Exported {} users", count);
+        return count;
+    }
+
+    private <K> LinkedHashSet<K> distinctWithinLimit(List<K> keys, String field) {
+        var distinctKeys = new LinkedHashSet<>(keys);
+        if (distinctKeys.size() > batchMaxSize) {
+            log.error("Batch lookup of {} {} exceeds limit {}", distinctKeys.size(), field, batchMaxSize);
+            throw new ValidationException(List.of(
+                    new ErrorField(field, "At most " + batchMaxSize + " " + field + " are allowed per request")));
+        }
+        return distinctKeys;
+    }
+
+    private static <K> BatchResponse<K, UserResponse> toBatchResponse(
+            LinkedHashSet<K> requestedKeys, Map<K, UserResponse> foundByKey) {
+        List<UserResponse> content = requestedKeys.stream()
+                .map(foundByKey::get)
+                .filter(Objects::nonNull)
+                .toList();
+        List<K> missing = requestedKeys.stream()
+                .filter(key -> !foundByKey.containsKey(key))
+                .toList();
+
+        return new BatchResponse<>(content, missing);
+    }
 }
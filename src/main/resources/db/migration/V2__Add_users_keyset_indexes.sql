@@ -0,0 +1,3 @@
+-- Supports keyset pagination ordered by full_name with id as tie-breaker.
+-- email (unique) and id (primary key) are already covered by existing indexes.
+CREATE INDEX idx_users_full_name_id ON users(full_name, id);
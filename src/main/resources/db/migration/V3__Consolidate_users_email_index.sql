@@ -0,0 +1,8 @@
+-- idx_users_email duplicated the index that already backs the UNIQUE constraint on email,
+-- so every write maintained two identical indexes. Replace both with a single unique
+-- covering index that also carries the login columns, letting login lookups by email
+-- be answered with an index-only scan.
+DROP INDEX IF EXISTS idx_users_email;
+
+ALTER TABLE users DROP CONSTRAINT users_email_key;
+ALTER TABLE users ADD CONSTRAINT users_email_key UNIQUE (email) INCLUDE (id, password, role, token_version);
@@ -0,0 +1,3 @@
+-- Lets the token version poll read recently updated rows without scanning the table;
+-- id and token_version are included so the poll is answered with an index-only scan.
+CREATE INDEX idx_users_updated_at ON users(updated_at) INCLUDE (id, token_version);
@@ -0,0 +1,20 @@
+-- Emails are compared case-insensitively: they are stored trimmed and lower-cased, and
+-- uniqueness moves from email to lower(email), so rows written outside this service cannot
+-- differ only by case either. email itself is included next to the login columns so
+-- lookups on lower(email) remain index-only scans.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM users GROUP BY lower(trim(email)) HAVING count(*) > 1) THEN
+        RAISE EXCEPTION 'users contains emails differing only by case or whitespace; merge them before migrating';
+    END IF;
+END $$;
+
+UPDATE users SET email = lower(trim(email)), updated_at = NOW() WHERE email <> lower(trim(email));
+
+ALTER TABLE users DROP CONSTRAINT users_email_key;
+CREATE UNIQUE INDEX users_email_lower_key ON users(lower(email)) INCLUDE (email, id, password, role, token_version);
+
+-- Dropping users_email_key removed the only b-tree on email itself. Keyset pagination and
+-- sort=email order by (email, id), and stored emails are already lower-cased, so this index
+-- serves them.
+CREATE INDEX idx_users_email_id ON users(email, id);
@@ -0,0 +1,3 @@
+-- Optimistic locking column: every entity update runs "... WHERE id = ? AND version = ?",
+-- so concurrent edits are detected without row locks. A constant default needs no rewrite.
+ALTER TABLE users ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,11 @@
+-- Indexes behind the filtered user list. pg_trgm is a trusted extension (Postgres 13+), so the
+-- database owner can create it. The trigram indexes are on lower(...) to match the
+-- "lower(column) LIKE '%text%'" predicates, which a b-tree cannot serve.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_users_full_name_trgm ON users USING gin (lower(full_name) gin_trgm_ops);
+CREATE INDEX idx_users_email_trgm ON users USING gin (lower(email) gin_trgm_ops);
+
+-- Role filter in the default id order, and created-at range filters.
+CREATE INDEX idx_users_role_id ON users(role, id);
+CREATE INDEX idx_users_created_at ON users(created_at);
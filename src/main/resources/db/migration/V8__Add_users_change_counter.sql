@@ -0,0 +1,21 @@
+-- Single-row counter behind the collection ETag, bumped by every statement that changes what
+-- the user list shows. It is written inside the changing transaction, so a new value becomes
+-- visible exactly when the change commits; updated_at is stamped when the statement runs and
+-- cannot tell a later commit apart.
+CREATE TABLE users_changes (
+    id BOOLEAN PRIMARY KEY DEFAULT TRUE CHECK (id),
+    changes BIGINT NOT NULL
+);
+
+INSERT INTO users_changes (changes) VALUES (0);
+
+CREATE FUNCTION bump_users_changes() RETURNS trigger AS $$
+BEGIN
+    UPDATE users_changes SET changes = changes + 1;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER users_changes_bump
+    AFTER INSERT OR DELETE OR TRUNCATE OR UPDATE OF full_name, email, role ON users
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_users_changes();
@@ -0,0 +1,49 @@
+package com.ctg.cache;
+
+import com.ctg.dto.LoginUserResponse;
+import com.ctg.model.Role;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginUserCacheTest {
+
+    private final LoginUserCache cache = new LoginUserCache(100, Duration.ofMinutes(1));
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    @DisplayName("get — a loaded user is served from the cache until evicted by id")
+    void get_cachesUntilEvicted() {
+        cache.get("Ann@Mail.com", this::load);
+        cache.get("ann@mail.com", this::load);
+        assertThat(loads).hasValue(1);
+
+        cache.evict(1L);
+        cache.get("ann@mail.com", this::load);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("get — an eviction during the load keeps the loaded row out of the cache")
+    void get_evictionDuringLoadIsNotLost() {
+        LoginUserResponse loaded = cache.get("ann@mail.com", email -> {
+            LoginUserResponse user = load(email);
+            cache.evict(user.id());
+            return user;
+        });
+        assertThat(loaded.tokenVersion()).isEqualTo(1);
+
+        LoginUserResponse reloaded = cache.get("ann@mail.com", this::load);
+
+        assertThat(reloaded.tokenVersion()).isEqualTo(2);
+    }
+
+    private LoginUserResponse load(String email) {
+        return new LoginUserResponse(1L, email, "hash", Role.EMPLOYEE, loads.incrementAndGet());
+    }
+}
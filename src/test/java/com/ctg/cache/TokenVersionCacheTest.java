@@ -0,0 +1,139 @@
+package com.ctg.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TokenVersionCacheTest {
+
+    private static final OffsetDateTime UPDATED_AT = OffsetDateTime.of(2026, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TokenVersionCache cache = new TokenVersionCache(jdbcTemplate, Duration.ofMinutes(1));
+
+    @Test
+    @DisplayName("isCurrent — nothing is current before the first successful load")
+    void isCurrent_failsClosedUntilLoaded() {
+        doThrow(new CannotGetJdbcConnectionException("down"))
+                .when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object.class));
+
+        cache.load();
+
+        assertThat(cache.isLoaded()).isFalse();
+        assertThat(cache.isCurrent(5, 0)).isFalse();
+
+        doNothing().when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object.class));
+        cache.refresh();
+
+        assertThat(cache.isCurrent(5, 0)).isTrue();
+    }
+
+    @Test
+    @DisplayName("isCurrent — unknown user accepts any version, known user rejects older ones")
+    void isCurrent_comparesWithKnownVersion() {
+        cache.refresh();
+        assertThat(cache.isCurrent(5, 0)).isTrue();
+
+        cache.update(5, 2);
+
+        assertThat(cache.isCurrent(5, 1)).isFalse();
+        assertThat(cache.isCurrent(5, 2)).isTrue();
+        assertThat(cache.isCurrent(5, 3)).isTrue();
+    }
+
+    @Test
+    @DisplayName("update — versions never move backwards")
+    void update_keepsHighestVersion() {
+        cache.update(100_000, 4);
+        cache.update(100_000, 3);
+
+        assertThat(cache.versionOf(100_000)).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("revoke — large ids are tracked too")
+    void revoke_tracksLargeIds() {
+        long id = 5_000_000_000L;
+        cache.refresh();
+
+        cache.revoke(id);
+
+        assertThat(cache.isCurrent(id, 1_000)).isFalse();
+    }
+
+    @Test
+    @DisplayName("revoke — deleted user has no current token")
+    void revoke_rejectsEveryVersion() {
+        cache.refresh();
+        cache.revoke(7);
+
+        assertThat(cache.isCurrent(7, 1_000)).isFalse();
+    }
+
+    @Test
+    @DisplayName("update — inside a transaction the version is applied only after commit")
+    void update_appliedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.update(3, 4);
+            cache.revoke(8);
+
+            assertThat(cache.versionOf(3)).isZero();
+            assertThat(cache.versionOf(8)).isZero();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(cache.versionOf(3)).isEqualTo(4);
+        assertThat(cache.versionOf(8)).isEqualTo(Integer.MAX_VALUE);
+    }
+
+    @Test
+    @DisplayName("refresh — applies changed rows, next poll starts at the newest row minus lookback")
+    void refresh_appliesRowsAndAdvancesWatermark() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(3L);
+        when(rs.getInt(2)).thenReturn(6);
+        when(rs.getObject(3, OffsetDateTime.class)).thenReturn(UPDATED_AT);
+        doAnswer(inv -> {
+            inv.<RowCallbackHandler>getArgument(1).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object.class));
+
+        cache.refresh();
+        cache.refresh();
+
+        assertThat(cache.versionOf(3)).isEqualTo(6);
+        verify(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class),
+                eq(UPDATED_AT.minusMinutes(1).toInstant().atOffset(ZoneOffset.UTC)));
+    }
+
+    @Test
+    @DisplayName("refresh — database failure keeps the known versions")
+    void refresh_toleratesFailure() {
+        cache.update(3, 2);
+        doThrow(new CannotGetJdbcConnectionException("down"))
+                .when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object.class));
+
+        cache.refresh();
+
+        assertThat(cache.versionOf(3)).isEqualTo(2);
+    }
+}
@@ -0,0 +1,62 @@
+package com.ctg.cache;
+
+import com.ctg.dto.UserVersion;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserJsonCacheTest {
+
+    private final UserJsonCache cache = new UserJsonCache(DataSize.ofMegabytes(1), Duration.ofMinutes(1));
+    private final AtomicInteger serializations = new AtomicInteger();
+
+    @Test
+    @DisplayName("get — same version is serialized once")
+    void get_sameVersionIsCached() {
+        UserVersion version = new UserVersion(1L, 0);
+
+        byte[] first = cache.get(version, serializer("a"));
+        byte[] second = cache.get(version, serializer("b"));
+
+        assertThat(second).isSameAs(first);
+        assertThat(serializations).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("get — a newer version is serialized again")
+    void get_newerVersionMisses() {
+        cache.get(new UserVersion(1L, 0), serializer("old"));
+
+        byte[] json = cache.get(new UserVersion(1L, 1), serializer("new"));
+
+        assertThat(new String(json, StandardCharsets.UTF_8)).isEqualTo("new");
+        assertThat(serializations).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("evict — next request serializes again")
+    void evict_dropsEntry() {
+        UserVersion version = new UserVersion(1L, 0);
+        cache.get(version, serializer("a"));
+
+        cache.evict(1L);
+        byte[] json = cache.get(version, serializer("b"));
+
+        assertThat(new String(json, StandardCharsets.UTF_8)).isEqualTo("b");
+        assertThat(serializations).hasValue(2);
+    }
+
+    private Supplier<byte[]> serializer(String json) {
+        return () -> {
+            serializations.incrementAndGet();
+            return json.getBytes(StandardCharsets.UTF_8);
+        };
+    }
+}
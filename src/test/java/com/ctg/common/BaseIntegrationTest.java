@@ -1,5 +1,6 @@
 package com.ctg.common;
 
+import com.ctg.cache.TokenVersionCache;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -28,6 +29,9 @@ public abstract class BaseIntegrationTest {
     @Autowired
     private DataSource dataSource;
 
+    @Autowired
+    private TokenVersionCache tokenVersionCache;
+
     @Container
     public static final PostgreSQLContainer<?> postgres =
             new PostgreSQLContainer<>(DockerImageName.parse("postgres:15"))
@@ -56,5 +60,7 @@ public abstract class BaseIntegrationTest {
         try (Connection conn = dataSource.getConnection()) {
             ScriptUtils.executeSqlScript(conn, new ClassPathResource("test-schema.sql"));
         }
+        // The schema only exists from here on, so the startup load of token versions failed
+        tokenVersionCache.refresh();
     }
 }
@@ -5,13 +5,35 @@ import com.ctg.dto.UserRequest;
 import com.ctg.dto.UserResponse;
 import com.ctg.model.Role;
 import com.ctg.model.User;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.util.List;
+import java.util.stream.IntStream;
 
 public class TestUserFactory {
 
     public static final Long USER_ID = 1L;
 
+    /** Well-formed bcrypt hash for seeded rows that are never logged in with. */
+    public static final String ENCODED_PASSWORD = "$2a$10$abcdefghijklmnopqrstuuM3c9kHjT1dV3yGm6o9d1H0j8Qp2aW";
+
+    /**
+     * Inserts {@code count} employees {@code <prefix><i>@mail.com}, i from 0, in one batch.
+     * After {@link #deleteAllUsers} their ids run from 1 to {@code count}.
+     */
+    public static void insertUsers(JdbcTemplate jdbcTemplate, String prefix, int count) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO users (email, full_name, password, role) VALUES (?, ?, ?, ?)",
+                IntStream.range(0, count)
+                        .mapToObj(i -> new Object[]{prefix + i + "@mail.com", "User " + i, ENCODED_PASSWORD, "EMPLOYEE"})
+                        .toList()
+        );
+    }
+
+    public static void deleteAllUsers(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("TRUNCATE TABLE users RESTART IDENTITY CASCADE");
+    }
+
     public static UserRequest createUserRequest() {
         return UserRequest.builder()
                 .email("employee@mail.com")
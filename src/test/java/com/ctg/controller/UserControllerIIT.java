@@ -2,6 +2,7 @@ package com.ctg.controller;
 
 import com.ctg.common.BaseIntegrationTest;
 import com.ctg.common.TestUserFactory;
+import com.ctg.dto.CursorPagedResponse;
 import com.ctg.dto.PagedResponse;
 import com.ctg.dto.UserRequest;
 import com.ctg.dto.UserResponse;
@@ -76,6 +77,48 @@ public class UserControllerIIT extends BaseIntegrationTest {
         assertThat(count).isEqualTo(1);
     }
 
+    @Test
+    @DisplayName("POST /users — email already exists")
+    void createUserEmailAlreadyExists() {
+        UserRequest newUser = TestUserFactory.createUserRequest();
+        createTestUser("Existing User", newUser.getEmail(), Role.ADMIN);
+
+        ResponseEntity<String> stringResponse = restTemplate.postForEntity(
+                MAIN_PATH,
+                newUser,
+                String.class
+        );
+
+        assertThat(stringResponse.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(stringResponse.getBody())
+                .contains(VALIDATION_TITLE)
+                .contains(CODE_422)
+                .contains("\"field\":\"email\",\"message\":\"Email already exists\"");
+
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE email = ?",
+                Integer.class,
+                newUser.getEmail()
+        );
+
+        assertThat(count).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("POST /users — email is stored lower-cased and unique regardless of case")
+    void createUserEmailCaseInsensitive() {
+        UserRequest mixedCase = TestUserFactory.createUserRequestWithEmail("Mixed.Case@Mail.com");
+        UserRequest upperCase = TestUserFactory.createUserRequestWithEmail("MIXED.CASE@MAIL.COM");
+
+        ResponseEntity<UserResponse> created = restTemplate.postForEntity(MAIN_PATH, mixedCase, UserResponse.class);
+        ResponseEntity<String> duplicate = restTemplate.postForEntity(MAIN_PATH, upperCase, String.class);
+
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(created.getBody().getEmail()).isEqualTo("mixed.case@mail.com");
+        assertThat(duplicate.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(duplicate.getBody()).contains("\"field\":\"email\",\"message\":\"Email already exists\"");
+    }
+
     @Test
     @DisplayName("POST /users — invalid JSON (missing fields)")
     void createUserInvalidJson() {
@@ -162,6 +205,47 @@ public class UserControllerIIT extends BaseIntegrationTest {
                 .containsExactly(userFromDb.getFullName(), userFromDb.getEmail());
     }
 
+    @Test
+    @DisplayName("GET /users/{id} — 304 for a matching ETag, 200 again after an update")
+    void getUserConditional() {
+        Long userId = insertUserAndGetId(TestUserFactory.createUserRequest());
+
+        String eTag = restTemplate.getForEntity(MAIN_PATH_ID + userId, UserResponse.class).getHeaders().getETag();
+        assertThat(eTag).isNotNull();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(eTag);
+        ResponseEntity<UserResponse> notModified = restTemplate.exchange(
+                MAIN_PATH_ID + userId, HttpMethod.GET, new HttpEntity<>(headers), UserResponse.class);
+        assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        jdbcTemplate.update("UPDATE users SET full_name = 'Renamed', version = version + 1 WHERE id = ?", userId);
+        ResponseEntity<UserResponse> modified = restTemplate.exchange(
+                MAIN_PATH_ID + userId, HttpMethod.GET, new HttpEntity<>(headers), UserResponse.class);
+        assertThat(modified.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(modified.getHeaders().getETag()).isNotEqualTo(eTag);
+    }
+
+    @Test
+    @DisplayName("GET /users — 304 while unchanged, 200 after an update that keeps updated_at")
+    void getUsersConditional() {
+        Long userId = insertUserAndGetId(TestUserFactory.createUserRequest());
+
+        String eTag = restTemplate.getForEntity(MAIN_PATH, String.class).getHeaders().getETag();
+        assertThat(eTag).isNotNull();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(eTag);
+        assertThat(restTemplate.exchange(MAIN_PATH, HttpMethod.GET, new HttpEntity<>(headers), String.class)
+                .getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        jdbcTemplate.update("UPDATE users SET full_name = 'Renamed', updated_at = updated_at WHERE id = ?", userId);
+        ResponseEntity<String> modified = restTemplate.exchange(
+                MAIN_PATH, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertThat(modified.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(modified.getHeaders().getETag()).isNotEqualTo(eTag);
+    }
+
     @Test
     @DisplayName("GET /users/{id} — Not Found")
     void getUserNotFound() {
@@ -210,6 +294,51 @@ public class UserControllerIIT extends BaseIntegrationTest {
         );
     }
 
+    @Test
+    @DisplayName("PUT /users/{id} — If-Match applies once, the reused tag fails with 412, the returned tag applies")
+    void updateUserIfMatch() {
+        Long userId = createTestUser("Old Name", "old@mail.com", Role.EMPLOYEE);
+        String eTag = restTemplate.getForEntity(MAIN_PATH_ID + userId, UserResponse.class).getHeaders().getETag();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch(eTag);
+        HttpEntity<UserRequest> request = new HttpEntity<>(
+                new UserRequest("New Name", "new@mail.com", "newPassword", Role.ADMIN), headers);
+
+        ResponseEntity<String> first = restTemplate.exchange(MAIN_PATH_ID + userId, HttpMethod.PUT, request, String.class);
+        ResponseEntity<String> second = restTemplate.exchange(MAIN_PATH_ID + userId, HttpMethod.PUT, request, String.class);
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(first.getHeaders().getETag()).isEqualTo("\"" + userId + "-1\"");
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM users WHERE id = ?", Long.class, userId)).isEqualTo(1L);
+
+        HttpHeaders chained = new HttpHeaders();
+        chained.setIfMatch(first.getHeaders().getETag());
+        HttpEntity<UserRequest> next = new HttpEntity<>(
+                new UserRequest("Next Name", "new@mail.com", "newPassword", Role.ADMIN), chained);
+        assertThat(restTemplate.exchange(MAIN_PATH_ID + userId, HttpMethod.PUT, next, String.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    @DisplayName("PATCH /users/{id} — changes only the supplied fields and keeps the password hash")
+    void patchUserRoleOnly() {
+        Long userId = createTestUser("Old Name", "old@mail.com", Role.EMPLOYEE);
+        String passwordBefore = jdbcTemplate.queryForObject("SELECT password FROM users WHERE id = ?", String.class, userId);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(UserController.MERGE_PATCH_JSON_VALUE));
+
+        ResponseEntity<UserResponse> response = restTemplate.exchange(MAIN_PATH_ID + userId, HttpMethod.PATCH,
+                new HttpEntity<>("{\"role\":\"ADMIN\"}", headers), UserResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .extracting(UserResponse::getFullName, UserResponse::getEmail, UserResponse::getRole)
+                .containsExactly("Old Name", "old@mail.com", Role.ADMIN);
+        assertThat(jdbcTemplate.queryForObject("SELECT password FROM users WHERE id = ?", String.class, userId))
+                .isEqualTo(passwordBefore);
+    }
+
     @Test
     @DisplayName("PUT /users/{id} — invalid parameters")
     void updateUserWithInvalidParameters() {
@@ -367,6 +496,37 @@ public class UserControllerIIT extends BaseIntegrationTest {
         assertThat(pagedResponse.getTotalElements()).isEqualTo(3);
     }
 
+    @Test
+    @DisplayName("GET /users — cursor pages through all users")
+    void getUsersWithCursor() {
+        createThreeTestUsers();
+
+        ResponseEntity<CursorPagedResponse<UserResponse>> first = restTemplate.exchange(
+                MAIN_PATH + "?after=&size=2&sort=email",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<>() {}
+        );
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(first.getBody().getContent())
+                .extracting(UserResponse::getEmail)
+                .containsExactly("user1@mail.com", "user2@mail.com");
+        assertThat(first.getBody().isHasNext()).isTrue();
+
+        ResponseEntity<CursorPagedResponse<UserResponse>> second = restTemplate.exchange(
+                MAIN_PATH + "?size=2&after=" + first.getBody().getNextCursor(),
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<>() {}
+        );
+
+        assertThat(second.getBody().getContent())
+                .extracting(UserResponse::getEmail)
+                .containsExactly("user3@mail.com");
+        assertThat(second.getBody().isHasNext()).isFalse();
+    }
+
     private Long insertUserAndGetId(UserRequest request) {
         KeyHolder keyHolder = new GeneratedKeyHolder();
 
@@ -1,13 +1,33 @@
 package com.ctg.controller;
 
+import com.ctg.cache.UserJsonCache;
 import com.ctg.common.TestUserFactory;
+import com.ctg.dto.BatchResponse;
+import com.ctg.dto.CollectionVersion;
+import com.ctg.dto.CursorPagedResponse;
+import com.ctg.dto.ImportRowResult;
+import com.ctg.dto.ImportSummary;
+import com.ctg.dto.SliceResponse;
+import com.ctg.dto.UserFilter;
+import com.ctg.dto.UserPatchRequest;
 import com.ctg.dto.UserRequest;
+import com.ctg.dto.UserResponse;
+import com.ctg.dto.UserVersion;
+import com.ctg.dto.VersionedUserResponse;
+import com.ctg.model.Role;
+import com.ctg.exceptions.PreconditionFailedException;
 import com.ctg.exceptions.ResourceNotFoundException;
 import com.ctg.exceptions.ValidationException;
 import com.ctg.dto.ErrorField;
+import com.ctg.service.ImportFormat;
+import com.ctg.service.UserImportService;
 import com.ctg.service.UserService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -15,21 +35,31 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.CannotCreateTransactionException;
 
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Instant;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(UserController.class)
 @AutoConfigureMockMvc(addFilters = false)
+@Import({SimpleMeterRegistry.class, UserJsonCache.class})
 class UserControllerTest {
 
     @Autowired
@@ -38,17 +68,36 @@ class UserControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserJsonCache userJsonCache;
+
     @MockitoBean
     private UserService userService;
 
+    @MockitoBean
+    private UserImportService userImportService;
+
     private final Long userId = TestUserFactory.USER_ID;
     private static final String MAIN_PATH = "/api/v1/users";
     private static final String MAIN_PATH_ID = "/api/v1/users/{id}";
 
+    private static final long VERSION = 3;
+
     private String toJson(Object obj) throws JsonProcessingException {
         return objectMapper.writeValueAsString(obj);
     }
 
+    @BeforeEach
+    void stubVersions() {
+        userJsonCache.evict(userId);
+        given(userService.getVersion(userId)).willReturn(new UserVersion(userId, VERSION));
+        given(userService.getCurrentVersion(any())).willReturn(new UserVersion(userId, VERSION));
+        given(userService.getCollectionVersion()).willReturn(new CollectionVersion(2, 7));
+    }
+
     @Test
     @DisplayName("GET /users/{id} — OK")
     void getUserOK() throws Exception {
@@ -60,29 +109,89 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.id").value(userId))
                 .andExpect(jsonPath("$.fullName").value(response.getFullName()))
                 .andExpect(jsonPath("$.email").value(response.getEmail()))
-                .andExpect(jsonPath("$.role").value(response.getRole().name()));
+                .andExpect(jsonPath("$.role").value(response.getRole().name()))
+                .andExpect(header().string("ETag", "\"" + userId + "-3\""));
 
         verify(userService, times(1)).get(userId);
     }
 
+    @Test
+    @DisplayName("GET /users/{id} twice — second response is served from the JSON cache")
+    void getUserServedFromJsonCache() throws Exception {
+        given(userService.get(userId)).willReturn(TestUserFactory.createUserResponse(userId));
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get(MAIN_PATH_ID, userId))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.id").value(userId));
+        }
+
+        verify(userService, times(1)).get(userId);
+        verify(userService, times(2)).getVersion(userId);
+    }
+
+    @Test
+    @DisplayName("GET /users/{id} with matching If-None-Match — 304 Not Modified")
+    void getUserNotModified() throws Exception {
+        mockMvc.perform(get(MAIN_PATH_ID, userId)
+                        .header("If-None-Match", "\"" + userId + "-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(userService, never()).get(anyLong());
+    }
+
+    @Test
+    @DisplayName("GET /users/{id} with stale If-None-Match — 200 OK")
+    void getUserModified() throws Exception {
+        given(userService.get(userId)).willReturn(TestUserFactory.createUserResponse(userId));
+
+        mockMvc.perform(get(MAIN_PATH_ID, userId)
+                        .header("If-None-Match", "\"" + userId + "-1\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(userId));
+    }
+
     @Test
     @DisplayName("GET /users/{id} — 404 Not Found")
     void getUserNotFound() throws Exception {
         String message = "User not found with id: " + userId;
-        given(userService.get(userId)).willThrow(new ResourceNotFoundException(message));
+        given(userService.getVersion(userId)).willThrow(new ResourceNotFoundException(message));
+        Counter notFound = meterRegistry.counter("api.errors", "exception", "ResourceNotFoundException", "status", "404");
+        double before = notFound.count();
 
         mockMvc.perform(get(MAIN_PATH_ID, userId))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value(message));
 
-        verify(userService, times(1)).get(userId);
+        verify(userService, never()).get(userId);
+        assertThat(notFound.count()).isEqualTo(before + 1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    @DisplayName("GET /users/{id} — 503 names pool exhaustion only for a Hikari timeout")
+    void getUserDatabaseUnavailable(boolean poolTimeout) throws Exception {
+        Throwable cause = poolTimeout
+                ? new SQLTransientConnectionException("Connection is not available, request timed out")
+                : new SQLException("Connection refused");
+        given(userService.getVersion(userId))
+                .willThrow(new CannotCreateTransactionException("Could not open JPA EntityManager", cause));
+
+        mockMvc.perform(get(MAIN_PATH_ID, userId))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.message").value(poolTimeout
+                        ? "Database connection pool exhausted, retry later"
+                        : "Database unavailable, retry later"));
     }
 
     @Test
     @DisplayName("GET /users with params — 200 OK")
     void getPagedUsersWithParams() throws Exception {
         var pagedResponse = TestUserFactory.pagedResponse();
-        given(userService.getByPage(anyInt(), anyInt(), anyString(), anyString()))
+        given(userService.getByPageWithKnownTotal(anyInt(), anyInt(), anyString(), anyString(), anyLong()))
                 .willReturn(pagedResponse);
 
         mockMvc.perform(get(MAIN_PATH)
@@ -97,7 +206,8 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.totalElements").value(pagedResponse.getTotalElements()))
                 .andExpect(jsonPath("$.totalPages").value(pagedResponse.getTotalPages()));
 
-        verify(userService).getByPage(anyInt(), anyInt(), anyString(), anyString());
+        // the total comes from the ETag probe rather than a second count
+        verify(userService).getByPageWithKnownTotal(eq(0), eq(10), eq("id"), eq("ASC"), eq(2L));
     }
 
     @Test
@@ -105,7 +215,7 @@ class UserControllerTest {
     void getPagedUsersWithDefaultParams() throws Exception {
         var pagedResponse = TestUserFactory.pagedResponse();
 
-        given(userService.getByPage(anyInt(), anyInt(), anyString(), anyString()))
+        given(userService.getByPageWithKnownTotal(anyInt(), anyInt(), anyString(), anyString(), anyLong()))
                 .willReturn(pagedResponse);
 
         mockMvc.perform(get(MAIN_PATH))
@@ -116,7 +226,206 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.totalElements").value(pagedResponse.getTotalElements()))
                 .andExpect(jsonPath("$.totalPages").value(pagedResponse.getTotalPages()));
 
-        verify(userService).getByPage(anyInt(), anyInt(), anyString(), anyString());
+        verify(userService).getByPageWithKnownTotal(anyInt(), anyInt(), anyString(), anyString(), anyLong());
+    }
+
+    @Test
+    @DisplayName("GET /users with filters — 200 OK from the filtered search")
+    void getUsersFiltered() throws Exception {
+        var pagedResponse = TestUserFactory.pagedResponse();
+        UserFilter filter = new UserFilter(Role.ADMIN, "smith", Instant.parse("2024-01-01T00:00:00Z"), null);
+        given(userService.search(eq(filter), anyInt(), anyInt(), anyString(), anyString())).willReturn(pagedResponse);
+
+        mockMvc.perform(get(MAIN_PATH)
+                        .param("role", "ADMIN")
+                        .param("q", "smith")
+                        .param("createdFrom", "2024-01-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(pagedResponse.getTotalElements()));
+
+        verify(userService, never()).getByPageWithKnownTotal(anyInt(), anyInt(), anyString(), anyString(), anyLong());
+        verify(userService, never()).getCollectionVersion();
+    }
+
+    @Test
+    @DisplayName("GET /users with filters and totals=none — slice without a count")
+    void getUsersSliceFiltered() throws Exception {
+        var slice = new SliceResponse<>(List.of(TestUserFactory.createUserResponse(userId)), 0, 15, false);
+        given(userService.searchSlice(eq(new UserFilter(Role.EMPLOYEE, null, null, null)),
+                anyInt(), anyInt(), anyString(), anyString())).willReturn(slice);
+
+        mockMvc.perform(get(MAIN_PATH).param("totals", "none").param("role", "EMPLOYEE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(false));
+
+        verify(userService, never()).getSliceByPage(anyInt(), anyInt(), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("GET /users with matching If-None-Match — 304 without running the page query")
+    void getPagedUsersNotModified() throws Exception {
+        mockMvc.perform(get(MAIN_PATH).header("If-None-Match", "\"2-7\""))
+                .andExpect(status().isNotModified());
+
+        verify(userService, never()).getByPageWithKnownTotal(anyInt(), anyInt(), anyString(), anyString(), anyLong());
+    }
+
+    @Test
+    @DisplayName("GET /users with totals=none — 200 OK without totals")
+    void getUsersSliceWithoutTotals() throws Exception {
+        var slice = new SliceResponse<>(List.of(TestUserFactory.createUserResponse(userId)), 0, 15, true);
+        given(userService.getSliceByPage(anyInt(), anyInt(), anyString(), anyString())).willReturn(slice);
+
+        mockMvc.perform(get(MAIN_PATH).param("totals", "none"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        verify(userService, never()).getByPageWithKnownTotal(anyInt(), anyInt(), anyString(), anyString(), anyLong());
+    }
+
+    @Test
+    @DisplayName("GET /users with totals=estimate — 200 OK")
+    void getUsersWithEstimatedTotals() throws Exception {
+        var pagedResponse = TestUserFactory.pagedResponse();
+        given(userService.getByPageWithEstimatedTotal(anyInt(), anyInt(), anyString(), anyString()))
+                .willReturn(pagedResponse);
+
+        mockMvc.perform(get(MAIN_PATH).param("totals", "estimate"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(pagedResponse.getTotalElements()));
+
+        verify(userService, never()).getByPageWithKnownTotal(anyInt(), anyInt(), anyString(), anyString(), anyLong());
+        verify(userService, never()).getCollectionVersion();
+    }
+
+    @Test
+    @DisplayName("GET /users with unknown totals mode — 422")
+    void getUsersWithUnknownTotals() throws Exception {
+        mockMvc.perform(get(MAIN_PATH).param("totals", "sometimes"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.fields[0].field").value("totals"));
+    }
+
+    @Test
+    @DisplayName("GET /users with cursor and filters — filters reach the keyset query")
+    void getUsersAfterCursorFiltered() throws Exception {
+        var cursorPage = new CursorPagedResponse<>(List.of(TestUserFactory.createUserResponse(userId)), 15, null, false);
+        given(userService.getByCursor(eq(new UserFilter(Role.ADMIN, null, null, null)), eq(""), anyInt(), anyString(), anyString()))
+                .willReturn(cursorPage);
+
+        mockMvc.perform(get(MAIN_PATH).param("after", "").param("role", "ADMIN"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(userId));
+    }
+
+    @Test
+    @DisplayName("GET /users with cursor — 200 OK")
+    void getUsersAfterCursor() throws Exception {
+        var cursorPage = new CursorPagedResponse<>(List.of(TestUserFactory.createUserResponse(userId)), 15, "next", true);
+        given(userService.getByCursor(any(), eq(""), anyInt(), anyString(), anyString())).willReturn(cursorPage);
+
+        mockMvc.perform(get(MAIN_PATH).param("after", ""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(userId))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.hasNext").value(true));
+
+        verify(userService).getByCursor(any(), eq(""), anyInt(), anyString(), anyString());
+        verify(userService, never()).getByPageWithKnownTotal(anyInt(), anyInt(), anyString(), anyString(), anyLong());
+    }
+
+    @Test
+    @DisplayName("GET /users/batch — 200 OK with missing ids")
+    void getUsersBatch() throws Exception {
+        var batch = new BatchResponse<>(List.of(TestUserFactory.createUserResponse(userId)), List.of(42L));
+        given(userService.getByIds(List.of(userId, 42L))).willReturn(batch);
+
+        mockMvc.perform(get(MAIN_PATH + "/batch").param("ids", userId + "," + 42))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(userId))
+                .andExpect(jsonPath("$.missing[0]").value(42));
+
+        verify(userService).getByIds(List.of(userId, 42L));
+    }
+
+    @Test
+    @DisplayName("POST /users/import — streams row results and summary as NDJSON")
+    @SuppressWarnings("unchecked")
+    void importUsersStreamsResults() throws Exception {
+        given(userImportService.importUsers(any(), eq(ImportFormat.CSV), any())).willAnswer(inv -> {
+            Consumer<List<ImportRowResult>> results = inv.getArgument(2);
+            results.accept(List.of(
+                    ImportRowResult.created(1, "a@mail.com", 10L),
+                    ImportRowResult.invalid(2, null, List.of(new ErrorField("email", "Email is mandatory")))));
+            return new ImportSummary(2, 1, 0, 1);
+        });
+
+        mockMvc.perform(post(MAIN_PATH + "/import")
+                        .contentType("text/csv")
+                        .content("fullName,email,password,role\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        "{\"row\":1,\"email\":\"a@mail.com\",\"status\":\"CREATED\",\"id\":10}\n"
+                                + "{\"row\":2,\"status\":\"INVALID\",\"errors\":[{\"field\":\"email\",\"message\":\"Email is mandatory\"}]}\n"
+                                + "{\"summary\":{\"total\":2,\"created\":1,\"duplicates\":0,\"invalid\":1}}\n"));
+    }
+
+    @Test
+    @DisplayName("POST /users/import — unsupported content type is 415")
+    void importUsersUnsupportedType() throws Exception {
+        mockMvc.perform(post(MAIN_PATH + "/import")
+                        .contentType(MediaType.APPLICATION_XML)
+                        .content("<users/>"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verifyNoInteractions(userImportService);
+    }
+
+    @Test
+    @DisplayName("GET /users/export — NDJSON by default, one user per line")
+    @SuppressWarnings("unchecked")
+    void exportUsersNdjson() throws Exception {
+        given(userService.exportAll(any())).willAnswer(inv -> {
+            Consumer<UserResponse> sink = inv.getArgument(0);
+            sink.accept(TestUserFactory.createUserResponse(1L));
+            sink.accept(TestUserFactory.createUserResponse(2L));
+            return 2L;
+        });
+
+        mockMvc.perform(get(MAIN_PATH + "/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        toJson(TestUserFactory.createUserResponse(1L)) + "\n"
+                                + toJson(TestUserFactory.createUserResponse(2L)) + "\n"));
+    }
+
+    @Test
+    @DisplayName("GET /users/export?format=csv — header and escaped rows")
+    @SuppressWarnings("unchecked")
+    void exportUsersCsv() throws Exception {
+        given(userService.exportAll(any())).willAnswer(inv -> {
+            Consumer<UserResponse> sink = inv.getArgument(0);
+            sink.accept(UserResponse.builder().id(7L).fullName("Doe, \"JD\" John").email("jd@mail.com").role(Role.ADMIN).build());
+            return 1L;
+        });
+
+        mockMvc.perform(get(MAIN_PATH + "/export").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string("id,fullName,email,role\n7,\"Doe, \"\"JD\"\" John\",jd@mail.com,ADMIN\n"));
+    }
+
+    @Test
+    @DisplayName("GET /users/export?format=xml — 422")
+    void exportUsersInvalidFormat() throws Exception {
+        mockMvc.perform(get(MAIN_PATH + "/export").param("format", "xml"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.fields[0].field").value("format"));
+
+        verify(userService, never()).exportAll(any());
     }
 
     @Test
@@ -190,23 +499,118 @@ class UserControllerTest {
         verify(userService, never()).create(any(UserRequest.class));
     }
 
+    @DisplayName("PATCH /users/{id} — only supplied fields reach the service")
+    @Test
+    void patchUserOk() throws Exception {
+        given(userService.patch(eq(userId), any(UserPatchRequest.class), isNull()))
+                .willReturn(new VersionedUserResponse(TestUserFactory.createUserResponse(userId), VERSION + 1));
+
+        mockMvc.perform(patch(MAIN_PATH_ID, userId)
+                        .contentType(UserController.MERGE_PATCH_JSON_VALUE)
+                        .content("{\"role\":\"ADMIN\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + userId + "-4\""))
+                .andExpect(jsonPath("$.id").value(userId));
+
+        verify(userService).patch(eq(userId), argThat(patch -> patch.getRole() == Role.ADMIN
+                && patch.getFullName() == null && patch.getEmail() == null && patch.getPassword() == null), isNull());
+    }
+
+    @DisplayName("PATCH /users/{id} — explicit null cannot remove a field")
+    @Test
+    void patchUserNullField() throws Exception {
+        mockMvc.perform(patch(MAIN_PATH_ID, userId)
+                        .contentType(UserController.MERGE_PATCH_JSON_VALUE)
+                        .content("{\"fullName\":null}"))
+                .andExpect(status().isBadRequest());
+
+        verify(userService, never()).patch(anyLong(), any(), any());
+    }
+
+    @DisplayName("PATCH /users/{id} — invalid field value — 422")
+    @Test
+    void patchUserInvalidPassword() throws Exception {
+        mockMvc.perform(patch(MAIN_PATH_ID, userId)
+                        .contentType(UserController.MERGE_PATCH_JSON_VALUE)
+                        .content("{\"password\":\"short\"}"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.fields[0].field").value("password"));
+
+        verify(userService, never()).patch(anyLong(), any(), any());
+    }
+
+    @DisplayName("PATCH /users/{id} — plain JSON is not a merge patch — 415")
+    @Test
+    void patchUserWrongContentType() throws Exception {
+        mockMvc.perform(patch(MAIN_PATH_ID, userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"role\":\"ADMIN\"}"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
     @DisplayName("PUT /users/{id} — OK")
     @Test
     void updateUserOk() throws Exception {
         var request = TestUserFactory.createUserRequest();
         var response = TestUserFactory.createUserResponse(userId, request);
-        given(userService.update(eq(userId), any(UserRequest.class))).willReturn(response);
+        given(userService.update(eq(userId), any(UserRequest.class), isNull()))
+                .willReturn(new VersionedUserResponse(response, VERSION + 1));
 
         mockMvc.perform(put(MAIN_PATH_ID, userId)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + userId + "-4\""))
                 .andExpect(jsonPath("$.id").value(userId))
                 .andExpect(jsonPath("$.fullName").value(response.getFullName()))
                 .andExpect(jsonPath("$.email").value(response.getEmail()))
                 .andExpect(jsonPath("$.role").value(response.getRole().name()));
 
-        verify(userService).update(anyLong(), any(UserRequest.class));
+        verify(userService).update(anyLong(), any(UserRequest.class), any());
+    }
+
+    @DisplayName("PUT /users/{id} with If-Match — passes the tagged version")
+    @Test
+    void updateUserIfMatch() throws Exception {
+        var request = TestUserFactory.createUserRequest();
+        given(userService.update(eq(userId), any(UserRequest.class), eq(VERSION)))
+                .willReturn(new VersionedUserResponse(TestUserFactory.createUserResponse(userId, request), VERSION + 1));
+
+        mockMvc.perform(put(MAIN_PATH_ID, userId)
+                        .header("If-Match", "\"" + userId + "-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(request)))
+                .andExpect(status().isOk());
+
+        verify(userService).update(eq(userId), any(UserRequest.class), eq(VERSION));
+    }
+
+    @DisplayName("PUT /users/{id} with a stale version — 412 Precondition Failed")
+    @Test
+    void updateUserStaleVersion() throws Exception {
+        var request = TestUserFactory.createUserRequest();
+        doThrow(new PreconditionFailedException("User " + userId + " has been modified, fetch it again and retry"))
+                .when(userService).update(eq(userId), any(UserRequest.class), eq(2L));
+
+        mockMvc.perform(put(MAIN_PATH_ID, userId)
+                        .header("If-Match", "\"" + userId + "-2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(request)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.code").value(412));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"W/\"1-3\"", "\"2-3\"", "\"1-x\"", "1-3"})
+    @DisplayName("PUT /users/{id} with a weak or foreign If-Match — 412 without touching the service")
+    void updateUserForeignIfMatch(String ifMatch) throws Exception {
+        mockMvc.perform(put(MAIN_PATH_ID, userId)
+                        .header("If-Match", ifMatch)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(TestUserFactory.createUserRequest())))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(userService, never()).update(anyLong(), any(UserRequest.class), any());
     }
 
     @DisplayName("PUT /users/{id} — USER NOT FOUND")
@@ -215,7 +619,7 @@ class UserControllerTest {
         String message = "User not found with id: " + userId;
         var request = TestUserFactory.createUserRequest();
         doThrow(new ResourceNotFoundException(message))
-                .when(userService).update(eq(userId), any(UserRequest.class));
+                .when(userService).update(eq(userId), any(UserRequest.class), isNull());
 
         mockMvc.perform(put(MAIN_PATH_ID, userId)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -223,7 +627,7 @@ class UserControllerTest {
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value(message));
 
-        verify(userService).update(anyLong(), any(UserRequest.class));
+        verify(userService).update(anyLong(), any(UserRequest.class), any());
     }
 
     @Test
@@ -239,7 +643,7 @@ class UserControllerTest {
                         .content(brokenJson))
                 .andExpect(status().isBadRequest());
 
-        verify(userService, never()).update(anyLong(), any(UserRequest.class));
+        verify(userService, never()).update(anyLong(), any(UserRequest.class), any());
     }
 
     @ParameterizedTest
@@ -248,7 +652,7 @@ class UserControllerTest {
     void updateUserWithInvalidEmails(String email) throws Exception {
         var request = TestUserFactory.createUserRequestWithEmail(email);
         doThrow(new ValidationException(List.of(new ErrorField("email", "Email should be valid"))))
-                .when(userService).update(userId, request);
+                .when(userService).update(userId, request, null);
 
         mockMvc.perform(put(MAIN_PATH_ID, userId)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -256,7 +660,7 @@ class UserControllerTest {
                 .andExpect(status().isUnprocessableEntity())
                 .andExpect(jsonPath("$.fields[0].field").value("email"));
 
-        verify(userService, never()).update(anyLong(), any(UserRequest.class));
+        verify(userService, never()).update(anyLong(), any(UserRequest.class), any());
     }
 
     @ParameterizedTest
@@ -266,7 +670,7 @@ class UserControllerTest {
         var request = TestUserFactory.createUserRequestWithPassword(password);
 
         doThrow(new ValidationException(List.of(new ErrorField("password", "Password must be 8-100 characters"))))
-                .when(userService).update(userId, request);
+                .when(userService).update(userId, request, null);
 
         mockMvc.perform(post(MAIN_PATH)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -274,7 +678,7 @@ class UserControllerTest {
                 .andExpect(status().isUnprocessableEntity())
                 .andExpect(jsonPath("$.fields[0].field").value("password"));
 
-        verify(userService, never()).update(anyLong(), any(UserRequest.class));
+        verify(userService, never()).update(anyLong(), any(UserRequest.class), any());
     }
 
     @Test
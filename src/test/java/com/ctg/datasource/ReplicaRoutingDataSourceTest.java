@@ -0,0 +1,130 @@
+package com.ctg.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final ReplicaRoutingDataSource routing =
+            new ReplicaRoutingDataSource(primary, replica, Duration.ofMinutes(1), Duration.ofSeconds(5));
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("getConnection — read-only transaction uses the replica, others the primary")
+    void getConnection_routesByReadOnlyFlag() throws SQLException {
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+
+        readOnlyTransaction();
+        assertThat(routing.getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    @DisplayName("getConnection — reads stay on the primary after the same principal committed a write")
+    void getConnection_readYourWrites() throws SQLException {
+        authenticate("writer");
+        readWriteTransaction().prepareStatement("update users set full_name = ? where id = ?");
+        commit();
+
+        readOnlyTransaction();
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+
+        authenticate("someone-else");
+        assertThat(routing.getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    @DisplayName("getConnection — a read-write transaction that only reads, or rolls back, is no write")
+    void getConnection_readWriteWithoutCommittedWriteKeepsReplica() throws SQLException {
+        authenticate("reader");
+        readWriteTransaction().prepareStatement("  SELECT * FROM users WHERE id = ?");
+        commit();
+        readWriteTransaction().prepareStatement("delete from users where id = ?");
+        TransactionSynchronizationManager.clearSynchronization();
+
+        readOnlyTransaction();
+        assertThat(routing.getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    @DisplayName("onPrimary — read-only transaction is kept on the primary")
+    void onPrimary_forcesPrimary() throws SQLException {
+        readOnlyTransaction();
+
+        assertThat(ReplicaRoutingDataSource.onPrimary(this::connection)).isSameAs(primaryConnection);
+        assertThat(routing.getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    @DisplayName("getConnection — replica down, falls back to the primary")
+    void getConnection_fallsBackWhenReplicaDown() throws SQLException {
+        when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+        readOnlyTransaction();
+
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        assertThat(routing.isReplicaUsable()).isFalse();
+    }
+
+    private Connection readWriteTransaction() throws SQLException {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.initSynchronization();
+        return routing.getConnection();
+    }
+
+    private static void commit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private void readOnlyTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    private static void authenticate(String name) {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(name, null, List.of()));
+    }
+
+    private Connection connection() {
+        try {
+            return routing.getConnection();
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
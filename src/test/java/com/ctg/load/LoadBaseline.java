@@ -0,0 +1,61 @@
+package com.ctg.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Reference numbers per scenario ({@code <scenario>.p99.ms}, {@code <scenario>.throughput.rps}).
+ * A run regresses when p99 exceeds the baseline times the tolerance, or throughput falls below
+ * the baseline divided by it. Scenarios missing from the file are reported but never fail.
+ */
+final class LoadBaseline {
+
+    private final Properties values;
+
+    private LoadBaseline(Properties values) {
+        this.values = values;
+    }
+
+    static LoadBaseline load(String resource) throws IOException {
+        Properties values = new Properties();
+        try (InputStream in = LoadBaseline.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in != null) {
+                values.load(in);
+            }
+        }
+        return new LoadBaseline(values);
+    }
+
+    List<String> regressions(LoadResult result, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        String p99 = values.getProperty(result.scenario() + ".p99.ms");
+        if (p99 != null && result.p99Ms() > Double.parseDouble(p99) * tolerance) {
+            regressions.add(String.format(Locale.ROOT, "%s p99 %.1f ms exceeds baseline %s ms x %.2f",
+                    result.scenario(), result.p99Ms(), p99, tolerance));
+        }
+        String throughput = values.getProperty(result.scenario() + ".throughput.rps");
+        if (throughput != null && result.throughput() < Double.parseDouble(throughput) / tolerance) {
+            regressions.add(String.format(Locale.ROOT, "%s throughput %.0f req/s below baseline %s req/s / %.2f",
+                    result.scenario(), result.throughput(), throughput, tolerance));
+        }
+        return regressions;
+    }
+
+    /** Writes results in baseline format, so a run can be promoted to the new baseline. */
+    static void write(Path file, List<LoadResult> results) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (Writer out = Files.newBufferedWriter(file)) {
+            for (LoadResult result : results) {
+                out.write(String.format(Locale.ROOT, "%s.p99.ms=%.1f%n%s.throughput.rps=%.0f%n",
+                        result.scenario(), result.p99Ms(), result.scenario(), result.throughput()));
+            }
+        }
+    }
+}
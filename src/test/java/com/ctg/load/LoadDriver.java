@@ -0,0 +1,65 @@
+package com.ctg.load;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Closed-loop load generator: {@code concurrency} virtual-thread clients send requests back to
+ * back until the scenario's request count is reached. A warm-up round precedes measurement.
+ */
+final class LoadDriver implements AutoCloseable {
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    LoadResult run(String scenario, int concurrency, int requests, IntFunction<HttpRequest> requestFor) throws Exception {
+        execute(requestFor, concurrency, Math.max(concurrency, requests / 5), new long[Math.max(concurrency, requests / 5)]);
+
+        long[] latencies = new long[requests];
+        long start = System.nanoTime();
+        int errors = execute(requestFor, concurrency, requests, latencies);
+        return LoadResult.of(scenario, concurrency, latencies, errors, System.nanoTime() - start);
+    }
+
+    private int execute(IntFunction<HttpRequest> requestFor, int concurrency, int requests, long[] latencies)
+            throws Exception {
+        AtomicInteger sequence = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(concurrency);
+            for (int c = 0; c < concurrency; c++) {
+                futures.add(clients.submit(() -> {
+                    int i;
+                    while ((i = sequence.getAndIncrement()) < requests) {
+                        HttpRequest request = requestFor.apply(i);
+                        long t0 = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        latencies[i] = System.nanoTime() - t0;
+                        if (response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return errors.get();
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+}
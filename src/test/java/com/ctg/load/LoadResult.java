@@ -0,0 +1,71 @@
+package com.ctg.load;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/** Latency distribution and throughput of one scenario run. */
+record LoadResult(
+        String scenario,
+        int concurrency,
+        int requests,
+        int errors,
+        double throughput,
+        double p50Ms,
+        double p90Ms,
+        double p99Ms,
+        double maxMs,
+        long[] histogram
+) {
+
+    /** Upper bounds (ms) of the histogram buckets; the last bucket is open-ended. */
+    static final double[] BUCKET_BOUNDS_MS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000};
+
+    static LoadResult of(String scenario, int concurrency, long[] latencyNanos, int errors, long elapsedNanos) {
+        long[] sorted = latencyNanos.clone();
+        Arrays.sort(sorted);
+        long[] histogram = new long[BUCKET_BOUNDS_MS.length + 1];
+        for (long nanos : sorted) {
+            histogram[bucket(nanos / 1e6)]++;
+        }
+        return new LoadResult(
+                scenario,
+                concurrency,
+                sorted.length,
+                errors,
+                sorted.length / (elapsedNanos / 1e9),
+                percentile(sorted, 0.50),
+                percentile(sorted, 0.90),
+                percentile(sorted, 0.99),
+                sorted[sorted.length - 1] / 1e6,
+                histogram
+        );
+    }
+
+    String report() {
+        StringBuilder out = new StringBuilder(String.format(Locale.ROOT,
+                "%n[%s] %d requests @ %d concurrent, %d errors, %.0f req/s, p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                scenario, requests, concurrency, errors, throughput, p50Ms, p90Ms, p99Ms, maxMs));
+        long peak = Arrays.stream(histogram).max().orElse(1);
+        for (int i = 0; i < histogram.length; i++) {
+            String label = i < BUCKET_BOUNDS_MS.length
+                    ? String.format(Locale.ROOT, "<= %4.0f ms", BUCKET_BOUNDS_MS[i])
+                    : String.format(Locale.ROOT, " > %4.0f ms", BUCKET_BOUNDS_MS[i - 1]);
+            int bar = (int) Math.round(40.0 * histogram[i] / peak);
+            out.append(String.format(Locale.ROOT, "  %s | %-40s %d%n", label, "#".repeat(bar), histogram[i]));
+        }
+        return out.toString();
+    }
+
+    private static int bucket(double millis) {
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            if (millis <= BUCKET_BOUNDS_MS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS_MS.length;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,141 @@
+package com.ctg.load;
+
+import com.ctg.common.BaseIntegrationTest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+import static com.ctg.common.TestUserFactory.deleteAllUsers;
+import static com.ctg.common.TestUserFactory.insertUsers;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load test of the real HTTP stack: JWT validation against a local JWKS, Tomcat,
+ * service and Postgres. Tune with system properties, e.g.
+ * {@code mvn test -Dtest=LoadTestIIT -Dload.concurrency=64 -Dload.requests=5000}:
+ * <ul>
+ *     <li>{@code load.concurrency} - concurrent clients (default 32)</li>
+ *     <li>{@code load.requests} - measured requests per scenario (default 2000, create uses a tenth)</li>
+ *     <li>{@code load.tolerance} - allowed factor against {@code load-baseline.properties} (default 1.5)</li>
+ * </ul>
+ * Results are also written to {@code target/load-test/results.properties} in baseline format,
+ * and the per-scenario reports with latency histograms to {@code target/load-test/report.txt}.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class LoadTestIIT extends BaseIntegrationTest {
+
+    private static final StubIssuer ISSUER = StubIssuer.start();
+    private static final String INTERNAL_SECRET = "change-me";
+    private static final int USERS = 1_000;
+
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 32);
+    private static final int REQUESTS = Integer.getInteger("load.requests", 2_000);
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("load.tolerance", "1.5"));
+
+    @DynamicPropertySource
+    static void issuerProperties(DynamicPropertyRegistry registry) {
+        registry.add("auth.issuer", ISSUER::issuer);
+        registry.add("auth.jwks-uri", ISSUER::jwksUri);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LoadDriver driver = new LoadDriver();
+    private final List<LoadResult> results = new ArrayList<>();
+    private LoadBaseline baseline;
+    private String bearer;
+
+    @BeforeAll
+    void seed() throws Exception {
+        insertUsers(jdbcTemplate, "load", USERS);
+        bearer = "Bearer " + ISSUER.accessToken(1L, Duration.ofHours(1));
+        baseline = LoadBaseline.load("load-baseline.properties");
+    }
+
+    @AfterAll
+    void report() throws Exception {
+        Path dir = Path.of("target", "load-test");
+        LoadBaseline.write(dir.resolve("results.properties"), results);
+        Files.writeString(dir.resolve("report.txt"),
+                results.stream().map(LoadResult::report).collect(Collectors.joining()));
+        driver.close();
+        ISSUER.close();
+        deleteAllUsers(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/users — paged list")
+    void list() throws Exception {
+        run("list", REQUESTS, i -> authorized("/api/v1/users?page=" + (i % 50) + "&size=20").build());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/users/{id}")
+    void get() throws Exception {
+        run("get", REQUESTS, i -> authorized("/api/v1/users/" + (i % USERS + 1)).build());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/users/current")
+    void current() throws Exception {
+        run("current", REQUESTS, i -> authorized("/api/v1/users/current").build());
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/users — bcrypt bound")
+    void create() throws Exception {
+        AtomicInteger sequence = new AtomicInteger();
+        run("create", Math.max(CONCURRENCY, REQUESTS / 10), i -> authorized("/api/v1/users")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("""
+                        {"fullName":"Created User","email":"created%d@mail.com","password":"Password123","role":"EMPLOYEE"}
+                        """.formatted(sequence.incrementAndGet())))
+                .build());
+    }
+
+    @Test
+    @DisplayName("GET /internal/users/by-email")
+    void byEmail() throws Exception {
+        run("byEmail", REQUESTS, i -> HttpRequest.newBuilder(uri("/internal/users/by-email?email=load" + (i % USERS) + "@mail.com"))
+                .header("X-Internal-Secret", INTERNAL_SECRET)
+                .build());
+    }
+
+    private void run(String scenario, int requests, IntFunction<HttpRequest> requestFor) throws Exception {
+        LoadResult result = driver.run(scenario, CONCURRENCY, requests, requestFor);
+        results.add(result);
+
+        assertThat(result.errors()).as("%s error responses", scenario).isZero();
+        assertThat(baseline.regressions(result, TOLERANCE)).as("%s regressions", scenario).isEmpty();
+    }
+
+    private HttpRequest.Builder authorized(String path) {
+        return HttpRequest.newBuilder(uri(path)).header("Authorization", bearer);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,12 @@
+package com.ctg.load;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "spring.threads.virtual.enabled=false")
+class PlatformThreadsLoadIIT extends ThreadingModeLoadIIT {
+
+    @Override
+    protected String mode() {
+        return "platform-threads";
+    }
+}
@@ -0,0 +1,112 @@
+package com.ctg.load;
+
+import com.ctg.common.BaseIntegrationTest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static com.ctg.common.TestUserFactory.deleteAllUsers;
+import static com.ctg.common.TestUserFactory.insertUsers;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the get-by-id and internal by-email paths with many concurrent clients and checks
+ * that every request is answered without errors. Throughput and latency percentiles are
+ * written to {@code target/load-test/<mode>.properties} in baseline format; run
+ * {@link VirtualThreadsLoadIIT} and {@link PlatformThreadsLoadIIT} together to compare the
+ * two threading modes. The login cache is disabled so every by-email call reaches Postgres.
+ */
+@TestPropertySource(properties = {
+        "user.login-cache.max-size=0",
+        "spring.datasource.hikari.maximum-pool-size=10",
+        "server.tomcat.threads.max=50"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+abstract class ThreadingModeLoadIIT extends BaseIntegrationTest {
+
+    private static final StubIssuer ISSUER = StubIssuer.start();
+    private static final int USERS = 1_000;
+    private static final int CLIENTS = 200;
+    private static final int REQUESTS = 5_000;
+    private static final String INTERNAL_SECRET = "change-me";
+
+    @DynamicPropertySource
+    static void issuerProperties(DynamicPropertyRegistry registry) {
+        registry.add("auth.issuer", ISSUER::issuer);
+        registry.add("auth.jwks-uri", ISSUER::jwksUri);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LoadDriver driver = new LoadDriver();
+    private final List<LoadResult> results = new ArrayList<>();
+    private String bearer;
+
+    @BeforeEach
+    void seed() {
+        insertUsers(jdbcTemplate, "load", USERS);
+        bearer = "Bearer " + ISSUER.accessToken(1L, Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        deleteAllUsers(jdbcTemplate);
+    }
+
+    @AfterAll
+    void report() throws Exception {
+        LoadBaseline.write(Path.of("target", "load-test", mode() + ".properties"), results);
+        driver.close();
+    }
+
+    /** Scenario prefix and results file name, e.g. {@code virtual-threads}. */
+    protected abstract String mode();
+
+    @Test
+    @DisplayName("GET /api/v1/users/{id} — concurrent load")
+    void getById() throws Exception {
+        run("get", i -> HttpRequest.newBuilder(uri("/api/v1/users/" + (i % USERS + 1)))
+                .header("Authorization", bearer)
+                .build());
+    }
+
+    @Test
+    @DisplayName("GET /internal/users/by-email — concurrent load")
+    void byEmail() throws Exception {
+        run("byEmail", i -> HttpRequest.newBuilder(uri("/internal/users/by-email?email=load" + (i % USERS) + "@mail.com"))
+                .header("X-Internal-Secret", INTERNAL_SECRET)
+                .build());
+    }
+
+    private void run(String path, IntFunction<HttpRequest> requestFor) throws Exception {
+        LoadResult result = driver.run(mode() + "." + path, CLIENTS, REQUESTS, requestFor);
+        results.add(result);
+
+        assertThat(result.errors()).as("%s error responses", path).isZero();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
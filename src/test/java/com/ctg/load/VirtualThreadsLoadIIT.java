@@ -0,0 +1,12 @@
+package com.ctg.load;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadsLoadIIT extends ThreadingModeLoadIIT {
+
+    @Override
+    protected String mode() {
+        return "virtual-threads";
+    }
+}
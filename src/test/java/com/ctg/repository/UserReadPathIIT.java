@@ -0,0 +1,129 @@
+package com.ctg.repository;
+
+import com.ctg.common.BaseIntegrationTest;
+import com.ctg.dto.UserResponse;
+import com.ctg.mapper.UserMapper;
+import com.ctg.model.User;
+import com.ctg.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static com.ctg.common.TestUserFactory.deleteAllUsers;
+import static com.ctg.common.TestUserFactory.insertUsers;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the entity + MapStruct read path with the DTO projection path on a 100-row page:
+ * entity loads and the selected columns are asserted. Timings are measured by
+ * {@code UserReadPathBenchmark} in the JMH profile.
+ */
+@TestPropertySource(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.ctg.repository.UserReadPathIIT$CapturedSql")
+class UserReadPathIIT extends BaseIntegrationTest {
+
+    private static final int PAGE_SIZE = 100;
+    private static final Specification<User> ALL_USERS = (root, query, cb) -> null;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTx;
+    private Statistics statistics;
+
+    @BeforeEach
+    void seed() {
+        insertUsers(jdbcTemplate, "user", PAGE_SIZE);
+
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        statistics.setStatisticsEnabled(false);
+        deleteAllUsers(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("100-row page — projection loads no entities and never selects the password")
+    void projectionSkipsEntityLoading() {
+        PageRequest page = PageRequest.of(0, PAGE_SIZE, Sort.by("id"));
+
+        long entityLoads = countEntityLoads(() -> userRepository.findAll(page).map(userMapper::toDto).getContent());
+        assertThat(entityLoads).isEqualTo(PAGE_SIZE);
+        assertThat(CapturedSql.STATEMENTS).anyMatch(sql -> sql.contains("password"));
+
+        long projectionLoads = countEntityLoads(() -> userRepository.findResponses(ALL_USERS, page).getContent());
+        assertThat(projectionLoads).isZero();
+        assertThat(CapturedSql.STATEMENTS).isNotEmpty().noneMatch(sql -> sql.contains("password"));
+    }
+
+    @Test
+    @DisplayName("export — streams every row in id order without loading entities")
+    void exportStreamsWithoutEntities() {
+        List<Long> ids = new ArrayList<>();
+        statistics.clear();
+
+        long exported = userService.exportAll(user -> ids.add(user.getId()));
+
+        assertThat(exported).isEqualTo(PAGE_SIZE);
+        assertThat(ids).isSorted().hasSize(PAGE_SIZE);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    private long countEntityLoads(Supplier<List<UserResponse>> read) {
+        statistics.clear();
+        CapturedSql.STATEMENTS.clear();
+        List<UserResponse> result = readOnlyTx.execute(status -> read.get());
+        assertThat(result).hasSize(PAGE_SIZE);
+        return statistics.getEntityLoadCount();
+    }
+
+    /** Records every SQL statement Hibernate prepares, so tests can check the selected columns. */
+    public static class CapturedSql implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.ctg.repository;
+
+import com.ctg.common.BaseIntegrationTest;
+import com.ctg.dto.UserFilter;
+import com.ctg.dto.UserResponse;
+import com.ctg.model.Role;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+import static com.ctg.common.TestUserFactory.deleteAllUsers;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserSearchIIT extends BaseIntegrationTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO users (email, full_name, password, role, created_at) VALUES (?, ?, 'x', ?, ?::timestamptz)",
+                List.of(
+                        new Object[]{"ann.smith@mail.com", "Ann Smith", "ADMIN", "2024-01-10T00:00:00Z"},
+                        new Object[]{"bob@mail.com", "Bob Smithson", "EMPLOYEE", "2024-02-10T00:00:00Z"},
+                        new Object[]{"carol@smith.org", "Carol Jones", "EMPLOYEE", "2024-03-10T00:00:00Z"},
+                        new Object[]{"dave@mail.com", "Dave 100% Real", "ADMIN", "2024-04-10T00:00:00Z"}
+                )
+        );
+    }
+
+    @AfterEach
+    void cleanUp() {
+        deleteAllUsers(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("substring matches name or email case-insensitively, combined with the other filters")
+    void filtersCombine() {
+        assertThat(emails(new UserFilter(null, "SMITH", null, null)))
+                .containsExactly("ann.smith@mail.com", "bob@mail.com", "carol@smith.org");
+        assertThat(emails(new UserFilter(Role.EMPLOYEE, "smith", null, null)))
+                .containsExactly("bob@mail.com", "carol@smith.org");
+        assertThat(emails(new UserFilter(null, "smith", Instant.parse("2024-02-10T00:00:00Z"),
+                Instant.parse("2024-03-10T00:00:00Z"))))
+                .containsExactly("bob@mail.com");
+    }
+
+    @Test
+    @DisplayName("keyset pages apply the same filters")
+    void keysetPagesAreFiltered() {
+        List<UserResponse> users = userRepository.findPageAfter(
+                UserSpecifications.matching(new UserFilter(Role.EMPLOYEE, "smith", null, null)),
+                KeysetSortField.ID, Sort.Direction.ASC, null, 1L, 10);
+
+        assertThat(users).extracting(UserResponse::getEmail).containsExactly("bob@mail.com", "carol@smith.org");
+    }
+
+    @Test
+    @DisplayName("LIKE wildcards in the search text are matched literally")
+    void wildcardsAreEscaped() {
+        assertThat(emails(new UserFilter(null, "0% r", null, null))).containsExactly("dave@mail.com");
+        assertThat(emails(new UserFilter(null, "a_n", null, null))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("substring search is answered from the trigram index")
+    void substringSearchUsesTrigramIndex() {
+        List<String> plan = new TransactionTemplate(transactionManager).execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            return jdbcTemplate.queryForList(
+                    "EXPLAIN SELECT id FROM users WHERE lower(full_name) LIKE '%smith%' OR lower(email) LIKE '%smith%'",
+                    String.class);
+        });
+
+        assertThat(String.join("\n", plan))
+                .contains("idx_users_full_name_trgm")
+                .contains("idx_users_email_trgm");
+    }
+
+    private List<String> emails(UserFilter filter) {
+        Page<UserResponse> page = userRepository.findResponses(UserSpecifications.matching(filter),
+                PageRequest.of(0, 10, Sort.by("id")));
+        return page.getContent().stream().map(UserResponse::getEmail).toList();
+    }
+}
@@ -0,0 +1,68 @@
+package com.ctg.repository;
+
+import com.ctg.common.BaseIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+import static com.ctg.common.TestUserFactory.deleteAllUsers;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserTokenVersionIIT extends BaseIntegrationTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+    private Long userId;
+
+    @BeforeEach
+    void seed() {
+        tx = new TransactionTemplate(transactionManager);
+        userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (email, full_name, password, role) VALUES ('ann@mail.com', 'Ann', 'x', 'EMPLOYEE')"
+                        + " RETURNING id",
+                Long.class);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        deleteAllUsers(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("incrementTokenVersion — returns the stored, incremented version")
+    void incrementReturnsNewVersion() {
+        assertThat(increment(userId)).contains(1);
+        assertThat(increment(userId)).contains(2);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT token_version FROM users WHERE id = ?", Integer.class, userId))
+                .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("incrementTokenVersion — unknown id is empty and changes nothing")
+    void incrementUnknownIdIsEmpty() {
+        assertThat(increment(userId + 1)).isEmpty();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT token_version FROM users WHERE id = ?", Integer.class, userId))
+                .isZero();
+    }
+
+    private Optional<Integer> increment(Long id) {
+        return tx.execute(status -> userRepository.incrementTokenVersion(id));
+    }
+}
@@ -0,0 +1,75 @@
+package com.ctg.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class CachingJwtDecoderTest {
+
+    private final JwtDecoder delegate = mock(JwtDecoder.class);
+    private final CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, 100);
+
+    @Test
+    @DisplayName("decode — same token is validated once and then served from cache")
+    void decode_cachesValidToken() {
+        Jwt jwt = jwt("a", Instant.now().plusSeconds(300));
+        when(delegate.decode("a")).thenReturn(jwt);
+
+        assertThat(decoder.decode("a")).isSameAs(jwt);
+        assertThat(decoder.decode("a")).isSameAs(jwt);
+
+        verify(delegate, times(1)).decode("a");
+    }
+
+    @Test
+    @DisplayName("decode — different tokens get their own entries")
+    void decode_keysByToken() {
+        when(delegate.decode("a")).thenReturn(jwt("a", Instant.now().plusSeconds(300)));
+        when(delegate.decode("b")).thenReturn(jwt("b", Instant.now().plusSeconds(300)));
+
+        assertThat(decoder.decode("a").getTokenValue()).isEqualTo("a");
+        assertThat(decoder.decode("b").getTokenValue()).isEqualTo("b");
+    }
+
+    @Test
+    @DisplayName("decode — expired token and token without exp are not served from cache")
+    void decode_doesNotCacheExpiredOrUnbounded() {
+        when(delegate.decode("expired")).thenReturn(jwt("expired", Instant.now().minusSeconds(5)));
+        when(delegate.decode("noExp")).thenReturn(jwt("noExp", null));
+
+        decoder.decode("expired");
+        decoder.decode("expired");
+        decoder.decode("noExp");
+        decoder.decode("noExp");
+
+        verify(delegate, times(2)).decode("expired");
+        verify(delegate, times(2)).decode("noExp");
+    }
+
+    @Test
+    @DisplayName("decode — rejected token is not cached")
+    void decode_doesNotCacheFailures() {
+        when(delegate.decode("bad")).thenThrow(new BadJwtException("invalid"));
+
+        assertThatThrownBy(() -> decoder.decode("bad")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("bad")).isInstanceOf(BadJwtException.class);
+
+        verify(delegate, times(2)).decode("bad");
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        Jwt.Builder builder = Jwt.withTokenValue(token).header("alg", "RS256").claim("uid", 1);
+        if (expiresAt != null) {
+            builder.expiresAt(expiresAt);
+        }
+        return builder.build();
+    }
+}
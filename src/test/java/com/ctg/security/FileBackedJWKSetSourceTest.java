@@ -0,0 +1,70 @@
+package com.ctg.security;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.JWKSetCacheRefreshEvaluator;
+import com.nimbusds.jose.jwk.source.JWKSetSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FileBackedJWKSetSourceTest {
+
+    @TempDir
+    private Path dir;
+
+    @SuppressWarnings("unchecked")
+    private final JWKSetSource<SecurityContext> remote = mock(JWKSetSource.class);
+
+    @Test
+    @DisplayName("getJWKSet — fetched key set is persisted with public keys only")
+    void getJWKSet_persistsFetchedKeys() throws Exception {
+        Path file = dir.resolve("jwks.json");
+        RSAKey key = new RSAKeyGenerator(2048).keyID("k1").generate();
+        when(remote.getJWKSet(any(), anyLong(), any())).thenReturn(new JWKSet(key));
+
+        new FileBackedJWKSetSource(remote, file).getJWKSet(JWKSetCacheRefreshEvaluator.noRefresh(), 0, null);
+
+        JWKSet persisted = JWKSet.load(file.toFile());
+        assertThat(persisted.getKeyByKeyId("k1")).isNotNull();
+        assertThat(persisted.getKeyByKeyId("k1").isPrivate()).isFalse();
+    }
+
+    @Test
+    @DisplayName("getJWKSet — issuer unreachable, serves the last persisted key set")
+    void getJWKSet_fallsBackToFile() throws Exception {
+        Path file = dir.resolve("jwks.json");
+        RSAKey key = new RSAKeyGenerator(2048).keyID("k1").generate();
+        Files.writeString(file, new JWKSet(key).toString(true));
+        when(remote.getJWKSet(any(), anyLong(), any())).thenThrow(new KeySourceException("connection refused"));
+
+        JWKSet jwkSet = new FileBackedJWKSetSource(remote, file)
+                .getJWKSet(JWKSetCacheRefreshEvaluator.noRefresh(), 0, null);
+
+        assertThat(jwkSet.getKeyByKeyId("k1")).isNotNull();
+    }
+
+    @Test
+    @DisplayName("getJWKSet — issuer unreachable and no file, rethrows")
+    void getJWKSet_rethrowsWithoutFile() throws Exception {
+        when(remote.getJWKSet(any(), anyLong(), any())).thenThrow(new KeySourceException("connection refused"));
+        FileBackedJWKSetSource source = new FileBackedJWKSetSource(remote, dir.resolve("missing.json"));
+
+        assertThatThrownBy(() -> source.getJWKSet(JWKSetCacheRefreshEvaluator.noRefresh(), 0, null))
+                .isInstanceOf(KeySourceException.class)
+                .hasMessage("connection refused");
+    }
+}
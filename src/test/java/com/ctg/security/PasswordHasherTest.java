@@ -0,0 +1,142 @@
+package com.ctg.security;
+
+import com.ctg.dto.PasswordHashingStatsResponse;
+import com.ctg.exceptions.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PasswordHasherTest {
+
+    private final PasswordEncoder encoder = mock(PasswordEncoder.class);
+    private final PasswordHasher hasher = new PasswordHasher(encoder, 1, 1, Duration.ofSeconds(3));
+
+    @AfterEach
+    void tearDown() {
+        hasher.destroy();
+    }
+
+    @Test
+    @DisplayName("hash — encodes on the pool and records stats")
+    void hash_encodes() {
+        when(encoder.encode("secret")).thenReturn("hashed");
+
+        assertThat(hasher.hash("secret")).isEqualTo("hashed");
+
+        PasswordHashingStatsResponse stats = hasher.stats();
+        assertThat(stats.completed()).isEqualTo(1);
+        assertThat(stats.rejected()).isZero();
+        assertThat(stats.poolSize()).isEqualTo(1);
+        assertThat(stats.queueCapacity()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("hash — pool and queue full, rejects with retry-after")
+    void hash_rejectsWhenSaturated() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(encoder.encode(anyString())).thenAnswer(inv -> {
+            started.countDown();
+            release.await();
+            return "hashed";
+        });
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> hasher.hash("a"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> hasher.hash("b"));
+        await(() -> hasher.stats().queueDepth() == 1);
+
+        assertThatThrownBy(() -> hasher.hash("c"))
+                .isInstanceOf(ServiceOverloadedException.class)
+                .extracting(ex -> ((ServiceOverloadedException) ex).getRetryAfter())
+                .isEqualTo(Duration.ofSeconds(3));
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hashed");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hashed");
+        assertThat(hasher.stats().rejected()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("hashAll — returns hashes in input order")
+    void hashAll_preservesOrder() {
+        when(encoder.encode(anyString())).thenAnswer(inv -> "h-" + inv.getArgument(0));
+
+        assertThat(hasher.hashAll(List.of("a", "b", "c", "d"))).containsExactly("h-a", "h-b", "h-c", "h-d");
+        assertThat(hasher.stats().completed()).isEqualTo(4);
+        assertThat(hasher.stats().rejected()).isZero();
+    }
+
+    @Test
+    @DisplayName("hashAll — queue full with nothing of its own in flight, fails instead of hashing inline")
+    void hashAll_rejectsWhenSaturated() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(encoder.encode(anyString())).thenAnswer(inv -> {
+            started.countDown();
+            release.await();
+            return "hashed";
+        });
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> hasher.hash("a"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> hasher.hash("b"));
+        await(() -> hasher.stats().queueDepth() == 1);
+
+        assertThatThrownBy(() -> hasher.hashAll(List.of("c", "d")))
+                .isInstanceOf(ServiceOverloadedException.class);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hashed");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hashed");
+        verify(encoder, never()).encode("c");
+        assertThat(hasher.stats().rejected()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("bindTo — hash timer and pool gauges are published")
+    void bindTo_registersMeters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        hasher.bindTo(registry);
+        when(encoder.encode("secret")).thenReturn("hashed");
+
+        hasher.hash("secret");
+
+        assertThat(registry.get("user.password.hash").timer().count()).isEqualTo(1);
+        assertThat(registry.get("user.password.hash.queue").gauge().value()).isZero();
+        assertThat(registry.get("user.password.hash.rejected").functionCounter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("hash — encoder failure is rethrown to the caller")
+    void hash_propagatesFailure() {
+        when(encoder.encode(anyString())).thenThrow(new IllegalArgumentException("bad"));
+
+        assertThatThrownBy(() -> hasher.hash("x"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("bad");
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met in time");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.ctg.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TimedJwtDecoderTest {
+
+    private final JwtDecoder delegate = mock(JwtDecoder.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final TimedJwtDecoder decoder = new TimedJwtDecoder(delegate, registry);
+
+    @Test
+    @DisplayName("decode — successful decode is timed as success")
+    void decode_success() {
+        Jwt jwt = Jwt.withTokenValue("ok").header("alg", "RS256").claim("uid", 1).build();
+        when(delegate.decode("ok")).thenReturn(jwt);
+
+        assertThat(decoder.decode("ok")).isSameAs(jwt);
+        assertThat(count("success")).isEqualTo(1);
+        assertThat(count("invalid")).isZero();
+    }
+
+    @Test
+    @DisplayName("decode — rejected token is timed as invalid, other failures as error")
+    void decode_failures() {
+        when(delegate.decode("bad")).thenThrow(new BadJwtException("expired"));
+        when(delegate.decode("down")).thenThrow(new JwtException("JWKS unreachable"));
+
+        assertThatThrownBy(() -> decoder.decode("bad")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("down")).isInstanceOf(JwtException.class);
+
+        assertThat(count("invalid")).isEqualTo(1);
+        assertThat(count("error")).isEqualTo(1);
+        assertThat(count("success")).isZero();
+    }
+
+    private long count(String outcome) {
+        return registry.get(TimedJwtDecoder.METRIC).tag("outcome", outcome).timer().count();
+    }
+}
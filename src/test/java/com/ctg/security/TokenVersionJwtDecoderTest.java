@@ -0,0 +1,58 @@
+package com.ctg.security;
+
+import com.ctg.cache.TokenVersionCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class TokenVersionJwtDecoderTest {
+
+    private final JwtDecoder delegate = mock(JwtDecoder.class);
+    private final TokenVersionCache tokenVersions = mock(TokenVersionCache.class);
+    private final TokenVersionJwtDecoder decoder = new TokenVersionJwtDecoder(delegate, tokenVersions);
+
+    @Test
+    @DisplayName("decode — token with the current version passes")
+    void decode_currentVersion() {
+        Jwt jwt = jwt(1L, 2L);
+        when(delegate.decode("t")).thenReturn(jwt);
+        when(tokenVersions.isCurrent(1L, 2)).thenReturn(true);
+
+        assertThat(decoder.decode("t")).isSameAs(jwt);
+    }
+
+    @Test
+    @DisplayName("decode — token with an outdated version is rejected as revoked")
+    void decode_revoked() {
+        when(delegate.decode("t")).thenReturn(jwt(1L, 1L));
+        when(tokenVersions.isCurrent(1L, 1)).thenReturn(false);
+
+        assertThatThrownBy(() -> decoder.decode("t"))
+                .isInstanceOf(JwtValidationException.class)
+                .hasMessage("Token has been revoked");
+    }
+
+    @Test
+    @DisplayName("decode — token without ver claim is not checked")
+    void decode_withoutVersion() {
+        when(delegate.decode("t")).thenReturn(jwt(1L, null));
+
+        decoder.decode("t");
+
+        verifyNoInteractions(tokenVersions);
+    }
+
+    private static Jwt jwt(Long uid, Long ver) {
+        Jwt.Builder builder = Jwt.withTokenValue("t").header("alg", "RS256").claim("uid", uid);
+        if (ver != null) {
+            builder.claim(TokenVersionJwtDecoder.VERSION_CLAIM, ver);
+        }
+        return builder.build();
+    }
+}
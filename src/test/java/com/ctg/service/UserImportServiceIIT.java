@@ -0,0 +1,59 @@
+package com.ctg.service;
+
+import com.ctg.common.BaseIntegrationTest;
+import com.ctg.dto.ImportRowResult;
+import com.ctg.dto.ImportSummary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.ctg.common.TestUserFactory.deleteAllUsers;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserImportServiceIIT extends BaseIntegrationTest {
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        deleteAllUsers(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("import CSV — COPY path inserts new rows and reports existing emails as duplicates")
+    void importCsvWithCopy() throws Exception {
+        jdbcTemplate.update("INSERT INTO users (email, full_name, password, role) VALUES ('taken@mail.com', 'Taken', 'x', 'ADMIN')");
+        String csv = """
+                fullName,email,password,role
+                Ann One,ann@mail.com,Password1,EMPLOYEE
+                Taken Again,taken@mail.com,Password1,EMPLOYEE
+                Ann Twice,ann@mail.com,Password1,EMPLOYEE
+                "Bob, Jr.",bob@mail.com,Password1,ADMIN
+                """;
+        List<ImportRowResult> results = new ArrayList<>();
+
+        ImportSummary summary = userImportService.importUsers(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV, results::addAll);
+
+        assertThat(summary).isEqualTo(new ImportSummary(4, 2, 2, 0));
+        assertThat(results).extracting(ImportRowResult::status).containsExactly(
+                ImportRowResult.Status.CREATED, ImportRowResult.Status.DUPLICATE,
+                ImportRowResult.Status.DUPLICATE, ImportRowResult.Status.CREATED);
+        assertThat(results.get(0).id()).isNotNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT full_name FROM users WHERE email = 'bob@mail.com'", String.class))
+                .isEqualTo("Bob, Jr.");
+        assertThat(jdbcTemplate.queryForObject("SELECT password FROM users WHERE email = 'ann@mail.com'", String.class))
+                .startsWith("$2a$");
+    }
+}
@@ -0,0 +1,177 @@
+package com.ctg.service;
+
+import com.ctg.dto.ImportRowResult;
+import com.ctg.dto.ImportSummary;
+import com.ctg.exceptions.ValidationException;
+import com.ctg.security.PasswordHasher;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserImportServiceImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private PasswordHasher passwordHasher;
+
+    private ValidatorFactory validatorFactory;
+    private UserImportServiceImpl importService;
+    private final List<List<ImportRowResult>> published = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        Validator validator = validatorFactory.getValidator();
+        importService = new UserImportServiceImpl(jdbcTemplate, transactionManager, passwordHasher, validator,
+                Jackson2ObjectMapperBuilder.json().build(), 2, false);
+        lenient().when(passwordHasher.hashAll(anyList()))
+                .thenAnswer(inv -> ((List<String>) inv.getArgument(0)).stream().map(p -> "hashed-" + p).toList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    @DisplayName("import NDJSON - rows validated, batched and reported in order")
+    void importNdjson() throws IOException {
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .thenReturn(new int[]{1}, new int[]{0}, new int[]{1});
+
+        ImportSummary summary = importService.importUsers(input("""
+                {"fullName":"Ann One","email":"ann@mail.com","password":"Password1","role":"EMPLOYEE"}
+                {"fullName":"Bob Two","email":"bad-email","password":"Password1","role":"EMPLOYEE"}
+                {"fullName":"Cat Three","email":"cat@mail.com","password":"Password1","role":"ADMIN"}
+
+                not json
+                {"fullName":"Dan Four","email":"dan@mail.com","password":"Password1","role":"EMPLOYEE"}
+                """), ImportFormat.NDJSON, published::add);
+
+        assertThat(summary).isEqualTo(new ImportSummary(5, 2, 1, 2));
+        assertThat(published).hasSize(3);
+        assertThat(published.stream().flatMap(List::stream).map(ImportRowResult::row))
+                .containsExactly(1, 2, 3, 4, 5);
+        assertThat(published.stream().flatMap(List::stream).map(ImportRowResult::status))
+                .containsExactly(ImportRowResult.Status.CREATED, ImportRowResult.Status.INVALID,
+                        ImportRowResult.Status.DUPLICATE, ImportRowResult.Status.INVALID,
+                        ImportRowResult.Status.CREATED);
+        assertThat(published.get(0).get(1).errors()).extracting("field").containsExactly("email");
+        assertThat(published.get(1).get(1).errors()).extracting("field").containsExactly("row");
+        verify(passwordHasher, times(3)).hashAll(anyList());
+    }
+
+    @Test
+    @DisplayName("import NDJSON - a null line is an invalid row")
+    void importNdjsonNullRow() throws IOException {
+        ImportSummary summary = importService.importUsers(input("null\n"), ImportFormat.NDJSON, published::add);
+
+        assertThat(summary).isEqualTo(new ImportSummary(1, 0, 0, 1));
+        assertThat(published.get(0).get(0).errors()).extracting("field").containsExactly("row");
+        verifyNoInteractions(jdbcTemplate, passwordHasher);
+    }
+
+    @Test
+    @DisplayName("import CSV - header mapped by name, quoted fields, hashed password inserted")
+    void importCsv() throws Exception {
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(jdbcTemplate.batchUpdate(contains("ON CONFLICT DO NOTHING"), any(BatchPreparedStatementSetter.class)))
+                .thenAnswer(inv -> {
+                    BatchPreparedStatementSetter setter = inv.getArgument(1);
+                    assertThat(setter.getBatchSize()).isEqualTo(1);
+                    setter.setValues(ps, 0);
+                    return new int[]{1};
+                });
+
+        ImportSummary summary = importService.importUsers(input("""
+                role,email,full_name,password
+                employee,ann@mail.com,"One, \"\"Ann\"\"",Password1
+                """), ImportFormat.CSV, published::add);
+
+        assertThat(summary).isEqualTo(new ImportSummary(1, 1, 0, 0));
+        verify(ps).setString(1, "One, \"Ann\"");
+        verify(ps).setString(2, "ann@mail.com");
+        verify(ps).setString(3, "hashed-Password1");
+        verify(ps).setString(4, "EMPLOYEE");
+    }
+
+    @Test
+    @DisplayName("import CSV - bad role and wrong column count are row errors")
+    void importCsvRowErrors() throws IOException {
+        ImportSummary summary = importService.importUsers(input("""
+                fullName,email,password,role
+                Ann One,ann@mail.com,Password1,OWNER
+                Bob Two,bob@mail.com
+                """), ImportFormat.CSV, published::add);
+
+        assertThat(summary).isEqualTo(new ImportSummary(2, 0, 0, 2));
+        assertThat(published.get(0)).extracting(r -> r.errors().get(0).getField()).containsExactly("role", "row");
+        verifyNoInteractions(jdbcTemplate, passwordHasher);
+    }
+
+    @Test
+    @DisplayName("import CSV - quoted field spans lines, an unclosed quote is a row error")
+    void importCsvQuotedLineBreak() throws Exception {
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(jdbcTemplate.batchUpdate(contains("ON CONFLICT DO NOTHING"), any(BatchPreparedStatementSetter.class)))
+                .thenAnswer(inv -> {
+                    BatchPreparedStatementSetter setter = inv.getArgument(1);
+                    setter.setValues(ps, 0);
+                    setter.setValues(ps, 1);
+                    return new int[]{1, 1};
+                });
+
+        ImportSummary summary = importService.importUsers(input("""
+                fullName,email,password,role
+                "Ann
+                One",ann@mail.com,Password1,EMPLOYEE
+                Bob Two,bob@mail.com,Password2,ADMIN
+                "Cid,cid@mail.com,Password3,ADMIN
+                """), ImportFormat.CSV, published::add);
+
+        assertThat(summary).isEqualTo(new ImportSummary(3, 2, 0, 1));
+        verify(ps).setString(1, "Ann\nOne");
+        verify(ps).setString(1, "Bob Two");
+        assertThat(published.get(1)).extracting(r -> r.errors().get(0).getField()).containsExactly("row");
+    }
+
+    @Test
+    @DisplayName("import CSV - missing header column rejected before any row")
+    void importCsvBadHeader() {
+        assertThatThrownBy(() -> importService.importUsers(input("fullName,email,password\n"), ImportFormat.CSV, published::add))
+                .isInstanceOf(ValidationException.class);
+        assertThat(published).isEmpty();
+    }
+
+    private static ByteArrayInputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,36 +1,71 @@
 package com.ctg.service;
 
+import com.ctg.cache.LoginUserCache;
+import com.ctg.cache.TokenVersionCache;
+import com.ctg.cache.UserJsonCache;
 import com.ctg.common.TestUserFactory;
+import com.ctg.dto.BatchResponse;
+import com.ctg.dto.CollectionVersion;
+import com.ctg.dto.CursorPagedResponse;
+import com.ctg.dto.LoginUserResponse;
 import com.ctg.dto.PagedResponse;
+import com.ctg.dto.SliceResponse;
+import com.ctg.dto.UserFilter;
+import com.ctg.dto.UserPatchRequest;
 import com.ctg.dto.UserRequest;
 import com.ctg.dto.UserResponse;
+import com.ctg.dto.UserVersion;
+import com.ctg.dto.VersionedUserResponse;
+import com.ctg.exceptions.PreconditionFailedException;
 import com.ctg.exceptions.ResourceNotFoundException;
 import com.ctg.exceptions.ValidationException;
 import com.ctg.mapper.UserMapper;
 import com.ctg.dto.ErrorField;
+import com.ctg.model.Role;
 import com.ctg.model.User;
+import com.ctg.repository.KeysetSortField;
 import com.ctg.repository.UserRepository;
+import com.ctg.security.PasswordHasher;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.security.crypto.password.PasswordEncoder;
-
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -43,11 +78,25 @@ class UserServiceImplTest {
     private UserMapper userMapper;
 
     @Mock
-    private PasswordEncoder encoder;
+    private PasswordHasher passwordHasher;
+
+    @Mock
+    private TokenVersionCache tokenVersionCache;
+
+    @Mock
+    private UserJsonCache userJsonCache;
+
+    @Spy
+    private TransactionOperations transactionOperations = TransactionOperations.withoutTransaction();
+
+    @Spy
+    private LoginUserCache loginUserCache = new LoginUserCache(100, Duration.ofMinutes(1));
 
     @InjectMocks
     private UserServiceImpl userService;
 
+    private static final UserFilter NO_FILTER = new UserFilter(null, null, null, null);
+
     private final Long userId = TestUserFactory.USER_ID;
     private UserRequest request;
     private UserResponse response;
@@ -58,14 +107,14 @@ class UserServiceImplTest {
         request = TestUserFactory.createUserRequest();
         entity = TestUserFactory.createUser(userId);
         response = TestUserFactory.createUserResponse(userId);
+        ReflectionTestUtils.setField(userService, "batchMaxSize", 3);
     }
 
 
     @Test
     @DisplayName("Get user — found")
     void getUserFound() {
-        when(userRepo.findById(userId)).thenReturn(Optional.of(entity));
-        when(userMapper.toDto(entity)).thenReturn(response);
+        when(userRepo.findResponseById(userId)).thenReturn(Optional.of(response));
 
         UserResponse result = userService.get(userId);
 
@@ -77,19 +126,87 @@ class UserServiceImplTest {
                 () -> assertEquals(result.getEmail(), response.getEmail())
         );
 
-        verify(userRepo, times(1)).findById(userId);
-        verify(userMapper, times(1)).toDto(entity);
+        verify(userRepo, times(1)).findResponseById(userId);
+        verify(userRepo, never()).findById(userId);
+        verify(userMapper, never()).toDto(any());
     }
 
     @Test
     @DisplayName("Get user — not found")
     void getUserNotFound() {
-        when(userRepo.findById(userId)).thenReturn(Optional.empty());
+        when(userRepo.findResponseById(userId)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> userService.get(userId))
                 .isInstanceOf(ResourceNotFoundException.class);
 
-        verify(userRepo, times(1)).findById(userId);
+        verify(userRepo, times(1)).findResponseById(userId);
+    }
+
+    @DisplayName("Get version - reads only the version probe")
+    @Test
+    void getVersionFound() {
+        UserVersion version = new UserVersion(userId, 2);
+        when(userRepo.findVersionById(userId)).thenReturn(Optional.of(version));
+
+        assertEquals(version, userService.getVersion(userId));
+
+        verify(userRepo, never()).findResponseById(userId);
+    }
+
+    @DisplayName("Get version - user not found")
+    @Test
+    void getVersionNotFound() {
+        when(userRepo.findVersionById(userId)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> userService.getVersion(userId))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @DisplayName("Search - filtered page from the specification query")
+    @Test
+    void searchFiltered() {
+        when(userRepo.findResponses(any(), any(PageRequest.class))).thenReturn(new PageImpl<>(List.of(response)));
+
+        PagedResponse<UserResponse> result = userService.search(
+                new UserFilter(Role.ADMIN, "smith", null, null), 0, 10, "id", "ASC");
+
+        assertThat(result.getContent()).containsExactly(response);
+    }
+
+    @DisplayName("Search - substring shorter than a trigram is rejected")
+    @Test
+    void searchShortSubstring() {
+        ValidationException ex = catchThrowableOfType(
+                () -> userService.search(new UserFilter(null, " ab ", null, null), 0, 10, "id", "ASC"),
+                ValidationException.class);
+
+        assertThat(ex.getErrorFields()).extracting(ErrorField::getField).containsExactly("q");
+        verifyNoInteractions(userRepo);
+    }
+
+    @DisplayName("Search - empty created-at range is rejected")
+    @Test
+    void searchEmptyCreatedRange() {
+        Instant at = Instant.parse("2024-01-01T00:00:00Z");
+
+        assertThatThrownBy(() -> userService.searchSlice(new UserFilter(null, null, at, at), 0, 10, "id", "ASC"))
+                .isInstanceOf(ValidationException.class);
+        verifyNoInteractions(userRepo);
+    }
+
+    @DisplayName("Get paged - known total skips the count query")
+    @Test
+    void getPagedUsersWithKnownTotal() {
+        when(userRepo.findResponseSlice(any(PageRequest.class))).thenReturn(new SliceImpl<>(List.of(response)));
+
+        PagedResponse<UserResponse> paged = userService.getByPageWithKnownTotal(0, 10, "id", "ASC", 21);
+
+        assertAll("known total",
+                () -> assertEquals(21, paged.getTotalElements()),
+                () -> assertEquals(3, paged.getTotalPages()),
+                () -> assertEquals(List.of(response), paged.getContent())
+        );
+        verify(userRepo, never()).count();
     }
 
     @DisplayName("Get paged - with users")
@@ -97,12 +214,9 @@ class UserServiceImplTest {
     void getPagedUsersWithUsers() {
         int page = 0, size = 10;
         String sortBy = "id", sortDir = "ASC";
-        Page<User> userPage = new PageImpl<>(List.of(entity));
-
-        when(userRepo.findAll(any(PageRequest.class))).thenReturn(userPage);
-        when(userMapper.toDto(entity)).thenReturn(response);
+        when(userRepo.findResponseSlice(any(PageRequest.class))).thenReturn(new SliceImpl<>(List.of(response)));
 
-        PagedResponse<UserResponse> pagedResponse = userService.getByPage(page, size, sortBy, sortDir);
+        PagedResponse<UserResponse> pagedResponse = userService.getByPageWithKnownTotal(page, size, sortBy, sortDir, 1);
 
         List<UserResponse> pageContent = pagedResponse.getContent();
         UserResponse first = pageContent.getFirst();
@@ -110,7 +224,7 @@ class UserServiceImplTest {
         assertAll("found paged user",
                 () -> assertNotNull(pagedResponse),
                 () -> assertNotNull(first),
-                () -> assertEquals(pagedResponse.getPageSize(), 1),
+                () -> assertEquals(pagedResponse.getPageSize(), size),
                 () -> assertEquals(pagedResponse.getPageNumber(), page),
                 () -> assertEquals(pageContent.size(), 1),
                 () -> assertEquals(first.getId(), response.getId()),
@@ -119,8 +233,8 @@ class UserServiceImplTest {
                 () -> assertEquals(first.getEmail(), response.getEmail())
         );
 
-        verify(userRepo, times(1)).findAll(any(PageRequest.class));
-        verify(userMapper, times(1)).toDto(entity);
+        verify(userRepo, times(1)).findResponseSlice(any(PageRequest.class));
+        verify(userMapper, never()).toDto(any());
     }
 
     @DisplayName("Get paged - empty content")
@@ -128,30 +242,105 @@ class UserServiceImplTest {
     void getPagedUsersWhenUsersFound() {
         int page = 0, size = 10;
         String sortBy = "email", sortDir = "DESC";
-        Page<User> userPage = new PageImpl<>(Collections.emptyList());
+        when(userRepo.findResponseSlice(any(PageRequest.class))).thenReturn(new SliceImpl<>(Collections.emptyList()));
 
-        when(userRepo.findAll(any(PageRequest.class))).thenReturn(userPage);
-
-        PagedResponse<UserResponse> pagedResponse = userService.getByPage(page, size, sortBy, sortDir);
+        PagedResponse<UserResponse> pagedResponse = userService.getByPageWithKnownTotal(page, size, sortBy, sortDir, 0);
 
         assertAll("found paged user",
                 () -> assertNotNull(pagedResponse),
-                () -> assertEquals(pagedResponse.getPageSize(), 0),
+                () -> assertEquals(pagedResponse.getTotalElements(), 0),
                 () -> assertEquals(pagedResponse.getPageNumber(), page),
                 () -> assertEquals(pagedResponse.getContent().size(), 0));
 
-        verify(userRepo, times(1)).findAll(any(PageRequest.class));
+        verify(userRepo, times(1)).findResponseSlice(any(PageRequest.class));
         verify(userMapper, never()).toDto(entity);
     }
 
 
+    @DisplayName("Collection version - change counter read before the count")
+    @Test
+    void getCollectionVersionReadsCounterFirst() {
+        when(userRepo.findChangeCount()).thenReturn(7L);
+        when(userRepo.count()).thenReturn(2L);
+
+        assertThat(userService.getCollectionVersion()).isEqualTo(new CollectionVersion(2, 7));
+
+        InOrder order = inOrder(userRepo);
+        order.verify(userRepo).findChangeCount();
+        order.verify(userRepo).count();
+    }
+
+    @DisplayName("Get paged with estimated total - uses planner estimate mid-table")
+    @Test
+    void getPagedUsersWithEstimatedTotal() {
+        when(userRepo.findResponseSlice(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(response), PageRequest.of(0, 1), true));
+        when(userRepo.estimateCount()).thenReturn(1000L);
+
+        PagedResponse<UserResponse> pagedResponse = userService.getByPageWithEstimatedTotal(0, 1, "id", "asc");
+
+        assertAll("estimated page",
+                () -> assertEquals(pagedResponse.getTotalElements(), 1000L),
+                () -> assertEquals(pagedResponse.getTotalPages(), 1000),
+                () -> assertEquals(pagedResponse.getContent().size(), 1)
+        );
+        verify(userRepo, never()).count();
+    }
+
+    @DisplayName("Get paged with estimated total - last page is exact without counting")
+    @Test
+    void getPagedUsersWithEstimatedTotalLastPage() {
+        when(userRepo.findResponseSlice(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(response), PageRequest.of(2, 10), false));
+
+        PagedResponse<UserResponse> pagedResponse = userService.getByPageWithEstimatedTotal(2, 10, "id", "asc");
+
+        assertAll("last estimated page",
+                () -> assertEquals(pagedResponse.getTotalElements(), 21L),
+                () -> assertEquals(pagedResponse.getTotalPages(), 3)
+        );
+        verify(userRepo, never()).estimateCount();
+        verify(userRepo, never()).count();
+    }
+
+    @DisplayName("Get paged with estimated total - empty page past the end does not report the offset")
+    @Test
+    void getPagedUsersWithEstimatedTotalPastEnd() {
+        when(userRepo.findResponseSlice(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(5, 10), false));
+        when(userRepo.estimateCount()).thenReturn(0L);
+        when(userRepo.count()).thenReturn(21L);
+
+        PagedResponse<UserResponse> pagedResponse = userService.getByPageWithEstimatedTotal(5, 10, "id", "asc");
+
+        assertAll("page past the end",
+                () -> assertEquals(pagedResponse.getTotalElements(), 21L),
+                () -> assertEquals(pagedResponse.getTotalPages(), 3),
+                () -> assertEquals(pagedResponse.getContent().size(), 0)
+        );
+    }
+
+    @DisplayName("Get slice - no count query")
+    @Test
+    void getSliceOfUsers() {
+        when(userRepo.findResponseSlice(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(response), PageRequest.of(0, 1), true));
+
+        SliceResponse<UserResponse> slice = userService.getSliceByPage(0, 1, "id", "asc");
+
+        assertAll("slice",
+                () -> assertTrue(slice.isHasNext()),
+                () -> assertEquals(slice.getContent().size(), 1)
+        );
+        verify(userRepo, never()).count();
+    }
+
     @Test
     @DisplayName("Create user — created")
     void createUserCreated() {
-        when(userRepo.existsByEmail(request.getEmail())).thenReturn(false);
-        when(encoder.encode(request.getPassword())).thenReturn("hashedPwd");
+        when(passwordHasher.hash(request.getPassword())).thenReturn("hashedPwd");
         ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
-        when(userRepo.save(any(User.class)))
+        when(userRepo.saveAndFlush(any(User.class)))
                 .thenAnswer(inv -> {
                     User u = inv.getArgument(0);
                     u.setId(10L);
@@ -169,16 +358,16 @@ class UserServiceImplTest {
                 () -> assertEquals(result.getEmail(), response.getEmail())
         );
 
-        verify(userRepo, times(1)).existsByEmail(request.getEmail());
-        verify(userRepo, times(1)).save(userCaptor.capture());
+        verify(userRepo, times(1)).saveAndFlush(userCaptor.capture());
         verify(userMapper, times(1)).toDto(userCaptor.capture());
-        verify(encoder, times(1)).encode(request.getPassword());
+        verify(passwordHasher, times(1)).hash(request.getPassword());
     }
 
     @Test
     @DisplayName("Create user — email already exists")
     void createUserEmailAlreadyExists() {
-        when(userRepo.existsByEmail(response.getEmail())).thenReturn(true);
+        when(passwordHasher.hash(request.getPassword())).thenReturn("hashedPwd");
+        when(userRepo.saveAndFlush(any(User.class))).thenThrow(emailConflict());
 
         ValidationException ex = catchThrowableOfType(
                 () -> userService.create(request),
@@ -189,9 +378,19 @@ class UserServiceImplTest {
                 .extracting(ErrorField::getField)
                 .containsExactly("email");
 
-        verify(userRepo, times(1)).existsByEmail(request.getEmail());
-        verify(userMapper, never()).toEntity(request);
-        verify(userRepo, never()).save(any());
+        verify(userRepo, times(1)).saveAndFlush(any(User.class));
+        verify(userMapper, never()).toDto(any());
+    }
+
+    @Test
+    @DisplayName("Create user — other integrity violations are not masked")
+    void createUserOtherIntegrityViolation() {
+        when(passwordHasher.hash(request.getPassword())).thenReturn("hashedPwd");
+        when(userRepo.saveAndFlush(any(User.class))).thenThrow(new DataIntegrityViolationException("check violated",
+                new ConstraintViolationException("check violated", new SQLException(), "users_role_check")));
+
+        assertThatThrownBy(() -> userService.create(request))
+                .isInstanceOf(DataIntegrityViolationException.class);
     }
 
     @DisplayName("Update user - updated")
@@ -199,34 +398,93 @@ class UserServiceImplTest {
     void updateUserUpdated() {
         UserRequest updatedEmail = TestUserFactory.createUserRequestWithEmail("updatedEmail@yandex.com");
         UserResponse updatedResponse = TestUserFactory.createUserResponse(userId, updatedEmail);
-        when(userRepo.findById(userId)).thenReturn(Optional.of(entity));
-        when(userRepo.existsByEmail(updatedEmail.getEmail())).thenReturn(false);
-        when(userMapper.toDto(entity)).thenReturn(updatedResponse);
+        when(passwordHasher.hash(updatedEmail.getPassword())).thenReturn("hashedPwd");
+        when(userRepo.updateIfVersion(eq(userId), isNull(), any(User.class))).thenReturn(1);
+        when(userRepo.findVersionedResponseById(userId))
+                .thenReturn(Optional.of(new VersionedUserResponse(updatedResponse, 1)));
 
-        UserResponse result = userService.update(userId, updatedEmail);
+        VersionedUserResponse updated = userService.update(userId, updatedEmail, null);
+        UserResponse result = updated.user();
 
         assertAll("updated user",
                 () -> assertNotNull(result),
+                () -> assertEquals(1, updated.version()),
                 () -> assertEquals(result.getId(), updatedResponse.getId()),
                 () -> assertEquals(result.getFullName(), updatedResponse.getFullName()),
                 () -> assertEquals(result.getRole(), updatedResponse.getRole()),
                 () -> assertEquals(result.getEmail(), updatedResponse.getEmail())
         );
 
-        verify(userRepo, times(1)).findById(userId);
-        verify(userRepo, times(1)).existsByEmail(updatedEmail.getEmail());
-        verify(userMapper, times(1)).toDto(entity);
+        ArgumentCaptor<User> changes = ArgumentCaptor.forClass(User.class);
+        verify(userRepo).updateIfVersion(eq(userId), isNull(), changes.capture());
+        verify(userMapper).updateEntityFromDto(updatedEmail, changes.getValue());
+        verify(userRepo, never()).findById(userId);
+        verify(userJsonCache).evict(userId);
+        assertThat(changes.getValue().getPassword()).isEqualTo("hashedPwd");
+    }
+
+    @DisplayName("Patch user - name-only patch does not hash")
+    @Test
+    void patchUserWithoutPassword() {
+        UserPatchRequest patch = UserPatchRequest.builder().fullName("Renamed User").build();
+        when(userRepo.updateIfVersion(eq(userId), isNull(), any(User.class))).thenReturn(1);
+        when(userRepo.findVersionedResponseById(userId)).thenReturn(Optional.of(new VersionedUserResponse(response, 1)));
+
+        userService.patch(userId, patch, null);
+
+        ArgumentCaptor<User> changes = ArgumentCaptor.forClass(User.class);
+        verify(userRepo).updateIfVersion(eq(userId), isNull(), changes.capture());
+        verify(userMapper).patchEntity(patch, changes.getValue());
+        verify(passwordHasher, never()).hash(anyString());
+        assertThat(changes.getValue().getPassword()).isNull();
+    }
+
+    @DisplayName("Patch user - supplied password is hashed")
+    @Test
+    void patchUserWithPassword() {
+        UserPatchRequest patch = UserPatchRequest.builder().password("NewPassword1").build();
+        when(passwordHasher.hash("NewPassword1")).thenReturn("newHash");
+        when(userRepo.updateIfVersion(eq(userId), isNull(), any(User.class))).thenReturn(1);
+        when(userRepo.findVersionedResponseById(userId)).thenReturn(Optional.of(new VersionedUserResponse(response, 1)));
+
+        userService.patch(userId, patch, null);
+
+        ArgumentCaptor<User> changes = ArgumentCaptor.forClass(User.class);
+        verify(userRepo).updateIfVersion(eq(userId), isNull(), changes.capture());
+        assertThat(changes.getValue().getPassword()).isEqualTo("newHash");
+        verify(userJsonCache).evict(userId);
+    }
+
+    @DisplayName("Patch user - empty patch writes nothing")
+    @Test
+    void patchUserEmpty() {
+        VersionedUserResponse current = new VersionedUserResponse(response, 3);
+        when(userRepo.findVersionedResponseById(userId)).thenReturn(Optional.of(current));
+
+        assertThat(userService.patch(userId, new UserPatchRequest(), 3L)).isSameAs(current);
+        verify(userRepo, never()).updateIfVersion(any(), any(), any());
+        verify(userJsonCache, never()).evict(userId);
+    }
+
+    @DisplayName("Patch user - empty patch with a stale version")
+    @Test
+    void patchUserEmptyStaleVersion() {
+        when(userRepo.findVersionedResponseById(userId))
+                .thenReturn(Optional.of(new VersionedUserResponse(response, 4)));
+
+        assertThatThrownBy(() -> userService.patch(userId, new UserPatchRequest(), 3L))
+                .isInstanceOf(PreconditionFailedException.class);
+        verify(userRepo, never()).updateIfVersion(any(), any(), any());
     }
 
     @DisplayName("Update user - email already exists")
     @Test
     void updateUserEmailAlreadyExists() {
         UserRequest updatedUser = TestUserFactory.createUserRequestWithEmail("changedEmail@yandex.ru");
-        when(userRepo.findById(userId)).thenReturn(Optional.of(entity));
-        when(userRepo.existsByEmail(updatedUser.getEmail())).thenReturn(true);
+        when(userRepo.updateIfVersion(eq(userId), isNull(), any(User.class))).thenThrow(emailConflict());
 
         ValidationException ex = catchThrowableOfType(
-                () -> userService.update(userId, updatedUser),
+                () -> userService.update(userId, updatedUser, null),
                 ValidationException.class
         );
 
@@ -234,9 +492,41 @@ class UserServiceImplTest {
                 .extracting(ErrorField::getField)
                 .containsExactly("email");
 
-        verify(userRepo, times(1)).findById(userId);
-        verify(userRepo, times(1)).existsByEmail(updatedUser.getEmail());
-        verify(userMapper, never()).toDto(entity);
+        verify(userRepo, never()).findVersionedResponseById(userId);
+        verify(userJsonCache, never()).evict(userId);
+    }
+
+    @DisplayName("Update user - not found")
+    @Test
+    void updateUserNotFound() {
+        when(userRepo.updateIfVersion(eq(userId), isNull(), any(User.class))).thenReturn(0);
+
+        assertThatThrownBy(() -> userService.update(userId, request, null))
+                .isInstanceOf(ResourceNotFoundException.class);
+
+        verify(userRepo, never()).existsById(userId);
+    }
+
+    @DisplayName("Update user - no row at the expected version is a stale version")
+    @Test
+    void updateUserStaleVersion() {
+        when(userRepo.updateIfVersion(eq(userId), eq(2L), any(User.class))).thenReturn(0);
+        when(userRepo.existsById(userId)).thenReturn(true);
+
+        assertThatThrownBy(() -> userService.update(userId, request, 2L))
+                .isInstanceOf(PreconditionFailedException.class);
+
+        verify(userJsonCache, never()).evict(userId);
+    }
+
+    @DisplayName("Update user - expected version of a missing user is not found")
+    @Test
+    void updateUserWithVersionNotFound() {
+        when(userRepo.updateIfVersion(eq(userId), eq(2L), any(User.class))).thenReturn(0);
+        when(userRepo.existsById(userId)).thenReturn(false);
+
+        assertThatThrownBy(() -> userService.update(userId, request, 2L))
+                .isInstanceOf(ResourceNotFoundException.class);
     }
 
     @DisplayName("Delete user - deleted")
@@ -248,6 +538,8 @@ class UserServiceImplTest {
 
         verify(userRepo, times(1)).existsById(userId);
         verify(userRepo).deleteById(userId);
+        verify(tokenVersionCache).revoke(userId);
+        verify(userJsonCache).evict(userId);
     }
 
     @DisplayName("Delete user - not found")
@@ -264,42 +556,246 @@ class UserServiceImplTest {
         verify(userRepo, never()).deleteById(userId);
     }
 
+    @Test
+    @DisplayName("exportAll - every streamed row reaches the sink and the stream is closed")
+    void exportAllStreamsRows() {
+        var closed = new AtomicBoolean();
+        Stream<UserResponse> rows = Stream.of(TestUserFactory.createUserResponse(1L), TestUserFactory.createUserResponse(2L))
+                .onClose(() -> closed.set(true));
+        when(userRepo.streamAllResponses()).thenReturn(rows);
+        List<Long> exported = new ArrayList<>();
+
+        long count = userService.exportAll(user -> exported.add(user.getId()));
+
+        assertThat(count).isEqualTo(2);
+        assertThat(exported).containsExactly(1L, 2L);
+        assertThat(closed).isTrue();
+    }
+
+    @Test
     @DisplayName("findByEmailForLogin - found")
     void findByEmailFound() {
-        when(userRepo.findByEmail(entity.getEmail())).thenReturn(Optional.of(entity));
+        when(userRepo.findLoginByEmail(entity.getEmail())).thenAnswer(inv -> Optional.of(loginUser(entity)));
 
-       User foundUser = userService.findByEmail(entity.getEmail());
+        LoginUserResponse foundUser = userService.findByEmailForLogin(entity.getEmail());
 
-        assertThat(foundUser).isEqualTo(entity);
+        assertAll("login user",
+                () -> assertEquals(foundUser.id(), entity.getId()),
+                () -> assertEquals(foundUser.email(), entity.getEmail()),
+                () -> assertEquals(foundUser.passwordHash(), entity.getPassword()),
+                () -> assertEquals(foundUser.role(), entity.getRole())
+        );
     }
 
     @Test
     @DisplayName("findByEmailForLogin - not found")
     void findByEmailNotFound() {
         String notExistingEmail = "notExistingEmail@mail.com";
-        when(userRepo.findByEmail(notExistingEmail)).thenReturn(Optional.empty());
+        when(userRepo.findLoginByEmail("notexistingemail@mail.com")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> userService.findByEmailForLogin(notExistingEmail))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("findByEmailForLogin - second lookup served from cache")
+    void findByEmailCached() {
+        when(userRepo.findLoginByEmail(entity.getEmail())).thenAnswer(inv -> Optional.of(loginUser(entity)));
+
+        userService.findByEmailForLogin(entity.getEmail());
+        userService.findByEmailForLogin(entity.getEmail().toUpperCase());
+
+        verify(userRepo, times(1)).findLoginByEmail(entity.getEmail());
+        assertThat(loginUserCache.stats().hitCount()).isEqualTo(1);
+    }
 
-        assertThatThrownBy(() -> userService.findByEmail(notExistingEmail))
+    @Test
+    @DisplayName("findByEmailForLogin - failed lookup is not cached")
+    void findByEmailNotFoundNotCached() {
+        when(userRepo.findLoginByEmail(entity.getEmail()))
+                .thenReturn(Optional.empty())
+                .thenAnswer(inv -> Optional.of(loginUser(entity)));
+
+        assertThatThrownBy(() -> userService.findByEmailForLogin(entity.getEmail()))
                 .isInstanceOf(ResourceNotFoundException.class);
+        LoginUserResponse found = userService.findByEmailForLogin(entity.getEmail());
+
+        assertThat(found.id()).isEqualTo(userId);
+        verify(userRepo, times(2)).findLoginByEmail(entity.getEmail());
+    }
+
+    @Test
+    @DisplayName("findByEmailForLogin - cache evicted on token version increment")
+    void findByEmailEvictedOnIncrement() {
+        when(userRepo.findLoginByEmail(entity.getEmail())).thenAnswer(inv -> Optional.of(loginUser(entity)));
+        when(userRepo.incrementTokenVersion(userId)).thenAnswer(inv -> {
+            entity.setTokenVersion(entity.getTokenVersion() + 1);
+            return Optional.of(entity.getTokenVersion());
+        });
+
+        userService.findByEmailForLogin(entity.getEmail());
+        userService.incrementTokenVersion(userId);
+        LoginUserResponse reloaded = userService.findByEmailForLogin(entity.getEmail());
+
+        assertThat(reloaded.tokenVersion()).isEqualTo(1);
+        verify(userRepo, times(2)).findLoginByEmail(entity.getEmail());
     }
 
     @Test
     @DisplayName("increment tokenVersion - incremented")
     void incrementTokenVersionIncremented() {
-        when(userRepo.findById(userId)).thenReturn(Optional.of(entity));
+        when(userRepo.incrementTokenVersion(userId)).thenReturn(Optional.of(1));
 
-        userService.incrementTokenVersion(userId);
+        int newVersion = userService.incrementTokenVersion(userId);
 
-        assertThat(entity.getTokenVersion()).isEqualTo(1);
+        assertThat(newVersion).isEqualTo(1);
+        verify(userRepo, never()).findById(userId);
+        verify(tokenVersionCache).update(userId, 1);
+        verify(userJsonCache).evict(userId);
     }
 
     @Test
     @DisplayName("increment TokenVersion - not found")
     void incrementTokenVersionNotFound() {
         Long notExistingId = 999L;
-        when(userRepo.findById(notExistingId)).thenReturn(Optional.empty());
+        when(userRepo.incrementTokenVersion(notExistingId)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> userService.incrementTokenVersion(notExistingId))
                 .isInstanceOf(ResourceNotFoundException.class);
     }
+
+    @Test
+    @DisplayName("Get by ids - keeps requested order and reports missing ids")
+    void getByIdsKeepsOrder() {
+        when(userRepo.findResponsesByIdIn(any()))
+                .thenReturn(List.of(response, TestUserFactory.createUserResponse(2L)));
+
+        BatchResponse<Long, UserResponse> result = userService.getByIds(List.of(2L, 99L, userId, 2L));
+
+        assertThat(result.getContent())
+                .extracting(UserResponse::getId)
+                .containsExactly(2L, userId);
+        assertThat(result.getMissing()).containsExactly(99L);
+        verify(userRepo, times(1)).findResponsesByIdIn(any());
+    }
+
+    @Test
+    @DisplayName("Get by ids - over the limit")
+    void getByIdsOverLimit() {
+        ValidationException ex = catchThrowableOfType(
+                () -> userService.getByIds(List.of(1L, 2L, 3L, 4L)),
+                ValidationException.class
+        );
+
+        assertThat(ex.getErrorFields())
+                .extracting(ErrorField::getField)
+                .containsExactly("ids");
+        verify(userRepo, never()).findResponsesByIdIn(any());
+    }
+
+    @Test
+    @DisplayName("Get by emails - reports missing emails")
+    void getByEmailsReportsMissing() {
+        when(userRepo.findResponsesByEmailIn(any())).thenReturn(List.of(response));
+
+        BatchResponse<String, UserResponse> result =
+                userService.getByEmails(List.of("missing@mail.com", entity.getEmail()));
+
+        assertThat(result.getContent())
+                .extracting(UserResponse::getEmail)
+                .containsExactly(entity.getEmail());
+        assertThat(result.getMissing()).containsExactly("missing@mail.com");
+    }
+
+    @Test
+    @DisplayName("Get by emails - emails are matched case-insensitively")
+    void getByEmailsNormalizesEmails() {
+        when(userRepo.findResponsesByEmailIn(any())).thenReturn(List.of(response));
+
+        BatchResponse<String, UserResponse> result =
+                userService.getByEmails(List.of(" " + entity.getEmail().toUpperCase() + " ", entity.getEmail()));
+
+        assertThat(result.getContent()).containsExactly(response);
+        assertThat(result.getMissing()).isEmpty();
+        verify(userRepo).findResponsesByEmailIn(argThat(emails -> emails.size() == 1 && emails.contains(entity.getEmail())));
+    }
+
+    @Test
+    @DisplayName("Get by cursor - next cursor continues after the last row")
+    void getByCursorContinuesAfterLastRow() {
+        UserResponse second = TestUserFactory.createUserResponse(2L);
+        UserResponse third = TestUserFactory.createUserResponse(3L);
+        when(userRepo.findPageAfter(any(), eq(KeysetSortField.ID), eq(Sort.Direction.ASC), isNull(), isNull(), eq(3)))
+                .thenReturn(List.of(response, second, third));
+
+        CursorPagedResponse<UserResponse> firstPage = userService.getByCursor(NO_FILTER, "", 2, "id", "asc");
+
+        assertAll("first page",
+                () -> assertEquals(firstPage.getContent().size(), 2),
+                () -> assertTrue(firstPage.isHasNext()),
+                () -> assertNotNull(firstPage.getNextCursor())
+        );
+
+        when(userRepo.findPageAfter(any(), eq(KeysetSortField.ID), eq(Sort.Direction.ASC), any(), eq(2L), anyInt()))
+                .thenReturn(List.of(third));
+
+        CursorPagedResponse<UserResponse> secondPage = userService.getByCursor(NO_FILTER, firstPage.getNextCursor(), 2, "id", "asc");
+
+        assertAll("second page",
+                () -> assertEquals(secondPage.getContent().size(), 1),
+                () -> assertFalse(secondPage.isHasNext()),
+                () -> assertNull(secondPage.getNextCursor())
+        );
+    }
+
+    @Test
+    @DisplayName("Get by cursor - unsupported sort field")
+    void getByCursorUnsupportedSort() {
+        ValidationException ex = catchThrowableOfType(
+                () -> userService.getByCursor(NO_FILTER, "", 2, "password", "asc"),
+                ValidationException.class
+        );
+
+        assertThat(ex.getErrorFields())
+                .extracting(ErrorField::getField)
+                .containsExactly("sort");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1})
+    @DisplayName("Get by cursor - page size below one")
+    void getByCursorInvalidSize(int size) {
+        ValidationException ex = catchThrowableOfType(
+                () -> userService.getByCursor(NO_FILTER, "", size, "id", "asc"),
+                ValidationException.class
+        );
+
+        assertThat(ex.getErrorFields())
+                .extracting(ErrorField::getField)
+                .containsExactly("size");
+        verify(userRepo, never()).findPageAfter(any(), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Get by cursor - malformed cursor")
+    void getByCursorMalformed() {
+        ValidationException ex = catchThrowableOfType(
+                () -> userService.getByCursor(NO_FILTER, "not-a-cursor", 2, "id", "asc"),
+                ValidationException.class
+        );
+
+        assertThat(ex.getErrorFields())
+                .extracting(ErrorField::getField)
+                .containsExactly("after");
+    }
+
+    private static LoginUserResponse loginUser(User user) {
+        return new LoginUserResponse(user.getId(), user.getEmail(), user.getPassword(),
+                user.getRole(), user.getTokenVersion());
+    }
+
+    private static DataIntegrityViolationException emailConflict() {
+        return new DataIntegrityViolationException("duplicate key",
+                new ConstraintViolationException("duplicate key", new SQLException(), UserRepository.EMAIL_UNIQUE_CONSTRAINT));
+    }
 }
@@ -1,14 +1,40 @@
 DROP TABLE IF EXISTS users CASCADE;
+DROP TABLE IF EXISTS users_changes;
 
 CREATE TABLE users (
     id BIGSERIAL PRIMARY KEY,
     full_name VARCHAR(255) NOT NULL,
-    email VARCHAR(255) NOT NULL UNIQUE,
+    email VARCHAR(255) NOT NULL,
     password VARCHAR(255) NOT NULL,
     role VARCHAR(20) NOT NULL CHECK (role IN ('SUPER_ADMIN', 'ADMIN', 'EMPLOYEE')),
     token_version INT NOT NULL DEFAULT 0,
     created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
-    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    version BIGINT NOT NULL DEFAULT 0
 );
 
-CREATE UNIQUE INDEX idx_users_email ON users(email);
+CREATE UNIQUE INDEX users_email_lower_key ON users(lower(email)) INCLUDE (email, id, password, role, token_version);
+
+CREATE INDEX idx_users_full_name_id ON users(full_name, id);
+CREATE INDEX idx_users_email_id ON users(email, id);
+CREATE INDEX idx_users_updated_at ON users(updated_at) INCLUDE (id, token_version);
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_users_full_name_trgm ON users USING gin (lower(full_name) gin_trgm_ops);
+CREATE INDEX idx_users_email_trgm ON users USING gin (lower(email) gin_trgm_ops);
+CREATE INDEX idx_users_role_id ON users(role, id);
+CREATE INDEX idx_users_created_at ON users(created_at);
+
+CREATE TABLE users_changes (
+    id BOOLEAN PRIMARY KEY DEFAULT TRUE CHECK (id),
+    changes BIGINT NOT NULL
+);
+INSERT INTO users_changes (changes) VALUES (0);
+
+-- Single-quoted body: ScriptUtils splits statements on ';' outside quotes but knows no $$
+CREATE OR REPLACE FUNCTION bump_users_changes() RETURNS trigger AS
+'BEGIN UPDATE users_changes SET changes = changes + 1; RETURN NULL; END;' LANGUAGE plpgsql;
+
+CREATE TRIGGER users_changes_bump
+    AFTER INSERT OR DELETE OR TRUNCATE OR UPDATE OF full_name, email, role ON users
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_users_changes();